@@ -10,6 +10,8 @@ create table user
     skills          text                                 null comment '技能标签，逗号分隔',
     goals           text                                 null comment '提升目标',
     email_subscribe tinyint(1) default 1                 not null comment '邮件订阅开关：0-关闭，1-开启',
+    timezone        varchar(64) default 'Asia/Shanghai' not null comment '用户时区（IANA时区ID）',
+    delivery_hour   tinyint    default 20                not null comment '日报投递时间（用户本地小时，0-23）',
     create_time     datetime   default CURRENT_TIMESTAMP not null comment '创建时间',
     update_time     datetime   default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
     deleted         tinyint(1) default 0                 not null comment '软删除标记：0-未删除，1-已删除',
@@ -29,6 +31,9 @@ create index idx_phone
 create index idx_profession
     on user (profession);
 
+create index idx_subscribe_delivery
+    on user (email_subscribe, timezone, delivery_hour, id);
+
 INSERT INTO bitgain.user (id, username, password, email, phone, profession, skills, goals, email_subscribe, create_time, update_time, deleted) VALUES (1, 'programmer001', '$2a$12$LQv3c1yqBwEHxPuNYkFNWONSRg5aMcnrBOKgO8lds2og/oc9wgl/2', 'programmer001@example.com', '13800001001', '程序员', 'Java,Spring Boot,MySQL,Redis', '提升架构设计能力,学习微服务', 0, '2024-01-01 08:00:00', '2025-08-20 18:43:09', 0);
 INSERT INTO bitgain.user (id, username, password, email, phone, profession, skills, goals, email_subscribe, create_time, update_time, deleted) VALUES (2, 'programmer002', '$2a$12$LQv3c1yqBwEHxPuNYkFNWONSRg5aMcnrBOKgO8lds2og/oc9wgl/2', 'programmer002@example.com', '13800001002', '程序员', 'Python,Django,PostgreSQL', '学习机器学习,提升算法能力', 0, '2024-01-01 08:30:00', '2025-08-20 18:43:09', 0);
 INSERT INTO bitgain.user (id, username, password, email, phone, profession, skills, goals, email_subscribe, create_time, update_time, deleted) VALUES (3, 'programmer003', '$2a$12$LQv3c1yqBwEHxPuNYkFNWONSRg5aMcnrBOKgO8lds2og/oc9wgl/2', 'programmer003@example.com', '13800001003', '程序员', 'JavaScript,Vue.js,Node.js', '掌握TypeScript,学习React', 0, '2024-01-01 09:00:00', '2025-08-20 18:43:09', 0);
@@ -265,8 +270,8 @@ create index idx_start_time
 create index idx_user_id
     on fixed_task (user_id);
 
-create index idx_user_time
-    on fixed_task (user_id, start_time, end_time);
+create index idx_user_deleted_time
+    on fixed_task (user_id, deleted, start_time, end_time);
 
 INSERT INTO bitgain.fixed_task (id, user_id, title, start_time, end_time, description, status, create_time, update_time, deleted) VALUES (1, 1, '晨间锻炼', '2024-01-15 07:00:00', '2024-01-15 08:00:00', '每日晨跑，保持身体健康', 'pending', '2025-08-20 11:17:10', '2025-08-20 11:17:10', 0);
 INSERT INTO bitgain.fixed_task (id, user_id, title, start_time, end_time, description, status, create_time, update_time, deleted) VALUES (2, 1, '工作会议', '2024-01-15 09:00:00', '2024-01-15 10:30:00', '团队周例会，讨论项目进展', 'pending', '2025-08-20 11:17:10', '2025-08-20 11:17:10', 0);
@@ -574,3 +579,6 @@ create table today_goal
     create_time datetime default CURRENT_TIMESTAMP not null,
     update_time datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP
 );
+
+create index idx_user_create_time
+    on today_goal (user_id, create_time);
@@ -1,30 +1,51 @@
 package com.lucius.bitgain.config;
 
 import com.lucius.bitgain.constant.AIConstant;
+import com.lucius.bitgain.properties.AiProperties;
+import com.lucius.bitgain.utils.AiCallGuard;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AIConfig {
+    /**
+     * 每个ChatClient使用独立的调用保护，推荐接口的故障不会让日报生成一起熔断
+     */
     @Bean
-    public ChatClient bitGainChatClient(OpenAiChatModel model) {
+    public AiCallGuard recommendationCallGuard(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        return new AiCallGuard("recommendation", aiProperties.getResilience(), meterRegistry);
+    }
+
+    @Bean
+    public AiCallGuard dailyReportCallGuard(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        return new AiCallGuard("daily-report", aiProperties.getResilience(), meterRegistry);
+    }
+
+    @Bean
+    public ChatClient bitGainChatClient(OpenAiChatModel model,
+                                        @Qualifier("recommendationCallGuard") AiCallGuard callGuard) {
         return ChatClient.builder(model)
-                .defaultSystem(AIConstant.MAIN)
+                .defaultSystem(AIConstant.RECOMMEND_SYSTEM)
                 .defaultAdvisors(
+                        callGuard,
                         new SimpleLoggerAdvisor())
                 .build();
     }
 
     @Bean
-    public ChatClient dailyReportChatClient(OpenAiChatModel model) {
+    public ChatClient dailyReportChatClient(OpenAiChatModel model,
+                                            @Qualifier("dailyReportCallGuard") AiCallGuard callGuard) {
         return ChatClient.builder(model)
                 .defaultSystem(AIConstant.DAILY_REPORT+" /no-think ")
                 .defaultAdvisors(
+                        callGuard,
                         new SimpleLoggerAdvisor())
                 .build();
     }
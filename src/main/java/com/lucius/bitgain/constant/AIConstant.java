@@ -79,6 +79,10 @@ public class AIConstant {
                   ]
                 }
             """;
+    /**
+     * AI任务推荐的系统提示，每次请求保持逐字节一致，便于模型服务端复用提示缓存
+     */
+    public static final String RECOMMEND_SYSTEM = MAIN + " /no-think ";
     public static final String DAILY_REPORT= """
             - Role: 日报撰写与学习规划专家
             - Background: 用户希望根据当日完成的任务情况撰写日报，并根据完成情况调整后续任务量或学习方向。用户会提供当日完成的任务清单、完成情况以及任何相关备注信息。
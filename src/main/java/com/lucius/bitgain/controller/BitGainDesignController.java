@@ -5,13 +5,17 @@ import com.lucius.bitgain.dto.TaskActionDTO;
 import com.lucius.bitgain.dto.TaskActionsRequestDTO;
 import com.lucius.bitgain.service.BitGainDesignService;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.utils.SseSessionManager;
+import com.lucius.bitgain.vo.TaskActionResultVO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
@@ -23,12 +27,16 @@ import java.util.Map;
 public class BitGainDesignController {
     @Autowired
     private BitGainDesignService bitGainDesignService;
+    @Autowired
+    private SseSessionManager sseSessionManager;
     
     @RequestMapping(value = "/recommend-tasks", produces = "text/event-stream")
     @Operation(summary = "AI智能设计", description = "基于SSE的AI智能设计功能")
-    public SseEmitter bitGainDesign() {
-        SseEmitter emitter = new SseEmitter(60000000L);
-        bitGainDesignService.bitGainDesign(emitter, BaseContext.getCurrentId());
+    public SseEmitter bitGainDesign(
+            @Parameter(description = "推荐模式：ai-AI生成（失败或超时自动改用规则推荐），rule-规则快速推荐")
+            @RequestParam(defaultValue = BitGainDesignService.MODE_AI) String mode) {
+        SseEmitter emitter = sseSessionManager.open();
+        bitGainDesignService.bitGainDesign(emitter, BaseContext.getCurrentId(), mode);
         return emitter;
     }
     
@@ -43,8 +51,10 @@ public class BitGainDesignController {
             @ApiResponse(responseCode = "401", description = "用户未登录"),
             @ApiResponse(responseCode = "500", description = "推荐失败")
     })
-    public Result<List<Map<String, Object>>> recommendTasks() {
-        return bitGainDesignService.recommendTasks();
+    public DeferredResult<Result<List<Map<String, Object>>>> recommendTasks(
+            @Parameter(description = "推荐模式：ai-AI生成（失败或超时自动改用规则推荐），rule-规则快速推荐")
+            @RequestParam(defaultValue = BitGainDesignService.MODE_AI) String mode) {
+        return bitGainDesignService.recommendTasks(mode);
     }
     
     /**
@@ -63,4 +73,20 @@ public class BitGainDesignController {
         Long userId = BaseContext.getCurrentId();
         return bitGainDesignService.confirmRecommendedTasks(request.getTaskActions());
     }
+    
+    /**
+     * 批量确认推荐任务
+     * @return 每个任务的处理结果
+     */
+    @PostMapping("/confirm-tasks/batch")
+    @Operation(summary = "批量确认推荐任务", description = "集合方式处理commit/reject操作，在一个事务内完成，并返回每个任务的处理结果")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "确认成功"),
+            @ApiResponse(responseCode = "400", description = "请求参数错误"),
+            @ApiResponse(responseCode = "401", description = "用户未登录"),
+            @ApiResponse(responseCode = "500", description = "确认失败")
+    })
+    public Result<List<TaskActionResultVO>> batchConfirmRecommendedTasks(@RequestBody TaskActionsRequestDTO request) {
+        return bitGainDesignService.batchConfirmRecommendedTasks(request.getTaskActions());
+    }
 }
@@ -4,7 +4,9 @@ import com.lucius.bitgain.dto.FixedTaskCreateDTO;
 import com.lucius.bitgain.dto.FixedTaskUpdateDTO;
 import com.lucius.bitgain.service.FixedTaskService;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.FixedTaskVO;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +16,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -87,6 +90,31 @@ public class FixedTaskController {
         return fixedTaskService.getMyFixedTasks();
     }
 
+    /**
+     * 分页查询当前用户的固定任务
+     * @param cursorTime 上一页返回的nextCursorTime
+     * @param cursorId 上一页返回的nextCursorId
+     * @param size 每页条数
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 分页结果
+     */
+    @GetMapping("/my/page")
+    @Operation(summary = "分页查询我的固定任务", description = "按开始时间升序游标分页查询当前用户的固定任务，可按日期范围过滤")
+    public Result<CursorPageVO<FixedTaskVO>> getMyFixedTasksPage(
+            @Parameter(description = "游标时间，取上一页的nextCursorTime，首页不传", example = "2024-01-15T07:00:00")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime cursorTime,
+            @Parameter(description = "游标ID，取上一页的nextCursorId，首页不传", example = "1")
+            @RequestParam(required = false) Long cursorId,
+            @Parameter(description = "每页条数，默认20，最大100", example = "20")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "开始日期（包含）", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @Parameter(description = "结束日期（包含）", example = "2024-01-31")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate) {
+        return fixedTaskService.getMyFixedTasksPage(cursorTime, cursorId, size, startDate, endDate);
+    }
+
     /**
      * 根据时间范围查询固定任务
      * @param startTime 开始时间
@@ -102,4 +130,17 @@ public class FixedTaskController {
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endTime) {
         return fixedTaskService.getFixedTasksByTimeRange(startTime, endTime);
     }
+
+    /**
+     * 查询指定日期的空闲时间段
+     * @param date 日期，默认今天
+     * @return 空闲时间段列表
+     */
+    @GetMapping("/free-time")
+    @Operation(summary = "查询空闲时间", description = "根据当前用户的固定任务计算指定日期可安排时间内的空闲时间段")
+    public Result<List<FreeTimeSlotVO>> getFreeTimeSlots(
+            @Parameter(description = "日期，默认今天", example = "2024-01-15")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        return fixedTaskService.getFreeTimeSlots(date != null ? date : LocalDate.now());
+    }
 }
\ No newline at end of file
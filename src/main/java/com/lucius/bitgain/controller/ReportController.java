@@ -0,0 +1,63 @@
+package com.lucius.bitgain.controller;
+
+import com.lucius.bitgain.service.ReportService;
+import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
+import com.lucius.bitgain.vo.ReportVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报告查询控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/report")
+@RequiredArgsConstructor
+@Tag(name = "报告查询", description = "历史日报的查询接口")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    /**
+     * 分页查询当前用户的历史报告
+     * @param reportType 报告类型
+     * @param cursorTime 上一页返回的nextCursorTime
+     * @param cursorId 上一页返回的nextCursorId
+     * @param size 每页条数
+     * @return 分页结果
+     */
+    @GetMapping("/my")
+    @Operation(summary = "查询我的历史报告", description = "按报告日期倒序游标分页查询当前用户的历史报告，列表不含报告内容")
+    public Result<CursorPageVO<ReportVO>> getMyReports(
+            @Parameter(description = "报告类型：daily-日报，weekly-周报，不传查询全部", example = "daily")
+            @RequestParam(required = false) String reportType,
+            @Parameter(description = "游标时间，取上一页的nextCursorTime，首页不传", example = "2024-01-15T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime cursorTime,
+            @Parameter(description = "游标ID，取上一页的nextCursorId，首页不传", example = "1")
+            @RequestParam(required = false) Long cursorId,
+            @Parameter(description = "每页条数，默认20，最大100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        return reportService.getMyReports(reportType, cursorTime, cursorId, size);
+    }
+
+    /**
+     * 查询报告详情
+     * @param id 报告ID
+     * @return 报告详情
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "查询报告详情", description = "根据报告ID查询报告内容和统计数据")
+    public Result<ReportVO> getMyReportById(
+            @Parameter(description = "报告ID", required = true, example = "1")
+            @PathVariable Long id) {
+        return reportService.getMyReportById(id);
+    }
+}
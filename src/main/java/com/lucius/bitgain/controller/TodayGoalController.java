@@ -3,15 +3,20 @@ package com.lucius.bitgain.controller;
 import com.lucius.bitgain.dto.TodayGoalDTO;
 import com.lucius.bitgain.service.TodayGoalService;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.TodayGoalVO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -139,6 +144,40 @@ public class TodayGoalController {
         }
     }
 
+    /**
+     * 分页查询当前用户的今日目标
+     *
+     * @param cursorTime 上一页返回的nextCursorTime
+     * @param cursorId   上一页返回的nextCursorId
+     * @param size       每页条数
+     * @param startDate  开始日期
+     * @param endDate    结束日期
+     * @return 分页结果
+     */
+    @GetMapping("/my/page")
+    @Operation(summary = "分页查询我的今日目标", description = "按创建时间倒序游标分页查询当前用户的今日目标，可按日期范围过滤")
+    public Result<CursorPageVO<TodayGoalVO>> getMyTodayGoalsPage(
+            @Parameter(description = "游标时间，取上一页的nextCursorTime，首页不传", example = "2024-01-15T07:00:00")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime cursorTime,
+            @Parameter(description = "游标ID，取上一页的nextCursorId，首页不传", example = "1")
+            @RequestParam(required = false) Long cursorId,
+            @Parameter(description = "每页条数，默认20，最大100", example = "20")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "开始日期（包含）", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @Parameter(description = "结束日期（包含）", example = "2024-01-31")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate) {
+        
+        log.info("分页查询我的今日目标");
+        
+        try {
+            return Result.success(todayGoalService.getMyTodayGoalsPage(cursorTime, cursorId, size, startDate, endDate));
+        } catch (Exception e) {
+            log.error("分页查询我的今日目标失败", e);
+            return Result.error("查询今日目标列表失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 删除当前用户的所有今日目标
      *
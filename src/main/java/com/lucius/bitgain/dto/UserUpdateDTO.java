@@ -2,6 +2,8 @@ package com.lucius.bitgain.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
@@ -41,4 +43,12 @@ public class UserUpdateDTO {
 
     @Schema(description = "邮件订阅开关（1:开启,0:关闭）", example = "1")
     private Integer emailSubscribe;
+
+    @Schema(description = "用户时区（IANA时区ID），不传则保持不变", example = "Asia/Shanghai")
+    private String timezone;
+
+    @Schema(description = "日报投递时间（本地小时，0-23），不传则保持不变", example = "20")
+    @Min(value = 0, message = "投递时间必须在0-23之间")
+    @Max(value = 23, message = "投递时间必须在0-23之间")
+    private Integer deliveryHour;
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.lucius.bitgain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件日志实体类，同时作为待发送邮件的发件箱
+ * 对应数据库表：email_log
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailLog {
+
+    /**
+     * 报告推送邮件
+     */
+    public static final String TYPE_REPORT = "report";
+
+    /**
+     * 待发送
+     */
+    public static final String STATUS_PENDING = "pending";
+
+    /**
+     * 已被发送线程认领，正在发送
+     */
+    public static final String STATUS_SENDING = "sending";
+
+    /**
+     * 发送成功
+     */
+    public static final String STATUS_SUCCESS = "success";
+
+    /**
+     * 重试次数用尽，发送失败
+     */
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * 日志ID，主键
+     */
+    private Long id;
+
+    /**
+     * 用户ID，外键
+     */
+    private Long userId;
+
+    /**
+     * 关联的报告ID，非报告邮件为null
+     */
+    private Long reportId;
+
+    /**
+     * 邮件类型：register-注册验证，report-报告推送，notification-通知
+     */
+    private String emailType;
+
+    /**
+     * 收件人邮箱
+     */
+    private String recipient;
+
+    /**
+     * 邮件主题
+     */
+    private String subject;
+
+    /**
+     * 邮件内容（HTML）
+     */
+    private String content;
+
+    /**
+     * 发送状态：pending-待发送，sending-发送中，success-成功，failed-失败
+     */
+    private String sendStatus;
+
+    /**
+     * 发送时间
+     */
+    private LocalDateTime sendTime;
+
+    /**
+     * 最近一次发送失败的错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 已失败的发送次数
+     */
+    private Integer retryCount;
+
+    /**
+     * 下次可发送时间，sending状态下为认领租约到期时间
+     */
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,67 @@
+package com.lucius.bitgain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 推荐活动实体类
+ * 对应数据库表：recommend_activity
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendActivity {
+
+    /**
+     * 活动ID，主键
+     */
+    private Long id;
+
+    /**
+     * 活动标题
+     */
+    private String title;
+
+    /**
+     * 活动描述
+     */
+    private String description;
+
+    /**
+     * 活动分类：学习提升、健康运动、创意娱乐、生活技能等
+     */
+    private String category;
+
+    /**
+     * 建议时长（分钟）
+     */
+    private Integer duration;
+
+    /**
+     * 难度等级：1-非常简单 ~ 5-非常困难
+     */
+    private Integer difficulty;
+
+    /**
+     * 所需技能，逗号分隔
+     */
+    private String skillsRequired;
+
+    /**
+     * 适合职业，逗号分隔，"所有职业"表示不限
+     */
+    private String professionMatch;
+
+    /**
+     * 受欢迎程度（完成次数）
+     */
+    private Integer popularity;
+
+    /**
+     * 标签，逗号分隔
+     */
+    private String tags;
+}
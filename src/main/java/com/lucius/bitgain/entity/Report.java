@@ -0,0 +1,75 @@
+package com.lucius.bitgain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 报告实体类
+ * 对应数据库表：report
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Report {
+
+    /**
+     * 日报
+     */
+    public static final String TYPE_DAILY = "daily";
+
+    /**
+     * 报告ID，主键
+     */
+    private Long id;
+
+    /**
+     * 用户ID，外键
+     */
+    private Long userId;
+
+    /**
+     * 报告类型：daily-日报，weekly-周报
+     */
+    private String reportType;
+
+    /**
+     * 报告日期
+     */
+    private LocalDate reportDate;
+
+    /**
+     * 报告标题
+     */
+    private String title;
+
+    /**
+     * 报告内容，JSON格式：{"html": "..."}
+     */
+    private String content;
+
+    /**
+     * 统计数据，JSON格式
+     */
+    private String statistics;
+
+    /**
+     * 是否已发送邮件：0-未发送，1-已发送
+     */
+    private Integer emailSent;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,95 @@
+package com.lucius.bitgain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日报分片实体类
+ * 对应数据库表：report_shard
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportShard {
+
+    /**
+     * 待处理
+     */
+    public static final String STATUS_PENDING = "pending";
+
+    /**
+     * 处理中（租约有效期内由owner持有）
+     */
+    public static final String STATUS_RUNNING = "running";
+
+    /**
+     * 已完成
+     */
+    public static final String STATUS_DONE = "done";
+
+    /**
+     * 分片ID，主键
+     */
+    private Long id;
+
+    /**
+     * 日报日期（用户本地日期）
+     */
+    private LocalDate runDate;
+
+    /**
+     * 投递时段：时区@投递小时，见 DeliverySlot#key()
+     */
+    private String slot;
+
+    /**
+     * 分片序号
+     */
+    private Integer shardNo;
+
+    /**
+     * 用户ID范围起点（包含）
+     */
+    private Long startUserId;
+
+    /**
+     * 用户ID范围终点（不包含）
+     */
+    private Long endUserId;
+
+    /**
+     * 已处理完的最后一个用户ID，续跑时从其后继续
+     */
+    private Long checkpointUserId;
+
+    /**
+     * 状态：pending-待处理，running-处理中，done-已完成
+     */
+    private String status;
+
+    /**
+     * 持有租约的节点标识
+     */
+    private String owner;
+
+    /**
+     * 租约到期时间
+     */
+    private LocalDateTime leaseUntil;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -55,6 +55,16 @@ public class User {
      */
     private Integer emailSubscribe;
 
+    /**
+     * 用户时区（IANA时区ID，如 Asia/Shanghai）
+     */
+    private String timezone;
+
+    /**
+     * 日报投递时间（用户本地小时，0-23）
+     */
+    private Integer deliveryHour;
+
     /**
      * 创建时间
      */
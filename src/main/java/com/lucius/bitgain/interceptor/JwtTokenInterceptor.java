@@ -2,7 +2,7 @@ package com.lucius.bitgain.interceptor;
 
 import com.lucius.bitgain.context.BaseContext;
 import com.lucius.bitgain.properties.JwtProperties;
-import com.lucius.bitgain.utils.JwtUtil;
+import com.lucius.bitgain.utils.JwtTokenVerifier;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,6 +22,9 @@ public class JwtTokenInterceptor implements HandlerInterceptor {
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
     /**
      * 校验JWT令牌
      *
@@ -69,7 +72,7 @@ public class JwtTokenInterceptor implements HandlerInterceptor {
                 return false;
             }
 
-            Claims claims = JwtUtil.parseJWT(jwtProperties.getUserSecretKey(), token);
+            Claims claims = jwtTokenVerifier.verify(token);
             Long userId = Long.valueOf(claims.get("userId").toString());
             
             // 将用户ID存储到上下文中
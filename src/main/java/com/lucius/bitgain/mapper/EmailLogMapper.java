@@ -0,0 +1,113 @@
+package com.lucius.bitgain.mapper;
+
+import com.lucius.bitgain.entity.EmailLog;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 邮件日志（发件箱）数据访问层
+ */
+@Mapper
+public interface EmailLogMapper {
+
+    /**
+     * 写入一封待发送邮件，同一报告的同类邮件已存在时保持原记录不变
+     * 依赖唯一键 uk_report_email_type(report_id, email_type)：分片被接管、分块重跑或报告重新生成时
+     * 不会再为同一报告写入第二封邮件。只吸收唯一键冲突，截断、非空约束等其他错误照常抛出。
+     *
+     * @param emailLog 邮件日志
+     * @return 影响行数（驱动默认按匹配行计数，已存在时同样为1）
+     */
+    @Insert("INSERT INTO email_log (user_id, report_id, email_type, recipient, subject, content, send_status, " +
+            "retry_count, next_retry_time, create_time) " +
+            "VALUES (#{userId}, #{reportId}, #{emailType}, #{recipient}, #{subject}, #{content}, #{sendStatus}, " +
+            "#{retryCount}, #{nextRetryTime}, #{createTime}) " +
+            "ON DUPLICATE KEY UPDATE id = id")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(EmailLog emailLog);
+
+    /**
+     * 锁定一批到期可发送的邮件，已被其他事务锁定的行直接跳过
+     * 包含租约已过期的sending行，发送线程异常退出后邮件会被重新认领。必须在事务中调用。
+     *
+     * @param now   当前时间
+     * @param limit 最多锁定条数
+     * @return 被锁定的邮件
+     */
+    @Select("SELECT * FROM email_log " +
+            "WHERE send_status IN ('pending', 'sending') AND next_retry_time <= #{now} " +
+            "ORDER BY next_retry_time, id LIMIT #{limit} " +
+            "FOR UPDATE SKIP LOCKED")
+    List<EmailLog> selectDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 将已锁定的邮件标记为发送中，租约到期前其他发送线程不会认领
+     *
+     * @param ids        邮件日志ID
+     * @param leaseUntil 租约到期时间
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE email_log SET send_status = 'sending', next_retry_time = #{leaseUntil} WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markSending(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 标记发送成功，仅当本线程的认领租约仍然有效（仍为sending且租约时间未被其他线程改写）
+     *
+     * @param id         邮件日志ID
+     * @param leaseUntil 认领时写入的租约到期时间
+     * @param sendTime   发送时间
+     * @return 影响行数，租约已被其他线程接管时为0
+     */
+    @Update("UPDATE email_log SET send_status = 'success', send_time = #{sendTime}, error_message = NULL " +
+            "WHERE id = #{id} AND send_status = 'sending' AND next_retry_time = #{leaseUntil}")
+    int markSuccess(@Param("id") Long id,
+                    @Param("leaseUntil") LocalDateTime leaseUntil,
+                    @Param("sendTime") LocalDateTime sendTime);
+
+    /**
+     * 记录一次发送失败，按给定时间重新进入待发送状态，仅当本线程的认领租约仍然有效
+     *
+     * @param id            邮件日志ID
+     * @param leaseUntil    认领时写入的租约到期时间
+     * @param retryCount    累计失败次数
+     * @param nextRetryTime 下次可发送时间
+     * @param errorMessage  错误信息
+     * @return 影响行数，租约已被其他线程接管时为0
+     */
+    @Update("UPDATE email_log SET send_status = 'pending', retry_count = #{retryCount}, " +
+            "next_retry_time = #{nextRetryTime}, error_message = #{errorMessage} " +
+            "WHERE id = #{id} AND send_status = 'sending' AND next_retry_time = #{leaseUntil}")
+    int markRetry(@Param("id") Long id,
+                  @Param("leaseUntil") LocalDateTime leaseUntil,
+                  @Param("retryCount") int retryCount,
+                  @Param("nextRetryTime") LocalDateTime nextRetryTime,
+                  @Param("errorMessage") String errorMessage);
+
+    /**
+     * 重试次数用尽，标记发送失败，仅当本线程的认领租约仍然有效
+     *
+     * @param id           邮件日志ID
+     * @param leaseUntil   认领时写入的租约到期时间
+     * @param retryCount   累计失败次数
+     * @param errorMessage 错误信息
+     * @return 影响行数，租约已被其他线程接管时为0
+     */
+    @Update("UPDATE email_log SET send_status = 'failed', retry_count = #{retryCount}, " +
+            "error_message = #{errorMessage} " +
+            "WHERE id = #{id} AND send_status = 'sending' AND next_retry_time = #{leaseUntil}")
+    int markFailed(@Param("id") Long id,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("retryCount") int retryCount,
+                   @Param("errorMessage") String errorMessage);
+}
@@ -4,6 +4,7 @@ import com.lucius.bitgain.entity.FixedTask;
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,6 +22,20 @@ public interface FixedTaskMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(FixedTask fixedTask);
 
+    /**
+     * 批量新增固定任务（单条多值INSERT），自增ID按顺序回填到每个任务
+     * @param fixedTasks 固定任务列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO fixed_task (user_id, title, start_time, end_time, description, status, create_time, update_time, deleted) VALUES " +
+            "<foreach collection='fixedTasks' item='task' separator=','>" +
+            "(#{task.userId}, #{task.title}, #{task.startTime}, #{task.endTime}, #{task.description}, #{task.status}, #{task.createTime}, #{task.updateTime}, #{task.deleted})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("fixedTasks") List<FixedTask> fixedTasks);
+
     /**
      * 根据ID删除固定任务（软删除）
      * @param id 任务ID
@@ -57,21 +72,73 @@ public interface FixedTaskMapper {
     List<FixedTask> selectByUserId(Long userId);
 
     /**
-     * 根据用户ID和时间范围查询固定任务
+     * 按 (start_time, id) 游标分页查询用户的固定任务
+     * @param userId 用户ID
+     * @param cursorTime 上一页最后一条的开始时间，首页为null
+     * @param cursorId 上一页最后一条的ID，首页为null
+     * @param from 开始时间下限（包含），可为null
+     * @param to 开始时间上限（不包含），可为null
+     * @param limit 查询条数
+     * @return 固定任务列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM fixed_task WHERE user_id = #{userId} AND deleted = 0 " +
+            "<if test='from != null'>AND start_time &gt;= #{from} </if>" +
+            "<if test='to != null'>AND start_time &lt; #{to} </if>" +
+            "<if test='cursorTime != null and cursorId != null'>" +
+            "AND start_time &gt;= #{cursorTime} AND (start_time &gt; #{cursorTime} OR id &gt; #{cursorId}) " +
+            "</if>" +
+            "ORDER BY start_time ASC, id ASC LIMIT #{limit}" +
+            "</script>")
+    List<FixedTask> selectPageByUserId(@Param("userId") Long userId,
+                                       @Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("limit") int limit);
+
+    /**
+     * 根据用户ID和时间范围查询与之重叠的固定任务
+     * 单一区间条件，可以走 idx_user_deleted_time(user_id, deleted, start_time, end_time) 的范围扫描
      * @param userId 用户ID
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @return 固定任务列表
      */
     @Select("SELECT * FROM fixed_task WHERE user_id = #{userId} AND deleted = 0 " +
-            "AND ((start_time >= #{startTime} AND start_time < #{endTime}) " +
-            "OR (end_time > #{startTime} AND end_time <= #{endTime}) " +
-            "OR (start_time < #{startTime} AND end_time > #{endTime})) " +
+            "AND start_time < #{endTime} AND end_time > #{startTime} " +
             "ORDER BY start_time ASC")
     List<FixedTask> selectByUserIdAndTimeRange(@Param("userId") Long userId, 
                                                @Param("startTime") LocalDateTime startTime, 
                                                @Param("endTime") LocalDateTime endTime);
 
+    /**
+     * 查询用户在指定时间之后才结束的有效固定任务，用于构建时间冲突索引
+     * @param userId 用户ID
+     * @param from 结束时间下限（不包含）
+     * @return 固定任务列表
+     */
+    @Select("SELECT * FROM fixed_task WHERE user_id = #{userId} AND deleted = 0 AND end_time > #{from} " +
+            "ORDER BY start_time ASC")
+    List<FixedTask> selectByUserIdEndingAfter(@Param("userId") Long userId, @Param("from") LocalDateTime from);
+
+    /**
+     * 批量查询多个用户与时间范围重叠的固定任务
+     * @param userIds 用户ID集合
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 固定任务列表，按用户ID和开始时间排序
+     */
+    @Select("<script>" +
+            "SELECT * FROM fixed_task WHERE user_id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach> " +
+            "AND deleted = 0 AND start_time &lt; #{endTime} AND end_time &gt; #{startTime} " +
+            "ORDER BY user_id, start_time" +
+            "</script>")
+    List<FixedTask> selectByUserIdsAndTimeRange(@Param("userIds") Collection<Long> userIds,
+                                                @Param("startTime") LocalDateTime startTime,
+                                                @Param("endTime") LocalDateTime endTime);
+
     /**
      * 检查时间冲突（新增时）
      * @param userId 用户ID
@@ -117,4 +184,43 @@ public interface FixedTaskMapper {
     @Update("UPDATE fixed_task SET deleted = #{deleted}, update_time = #{updateTime} ,status=#{status} " +
             "WHERE id = #{id} AND user_id = #{userId}")
     void updateDeleted(FixedTask fixedTask);
+
+    /**
+     * 根据ID列表批量查询固定任务（包含已删除的记录）
+     * @param ids 任务ID列表，不能为空
+     * @param userId 用户ID
+     * @return 固定任务列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM fixed_task WHERE user_id = #{userId} AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<FixedTask> selectByIdsIncludeDeleted(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * 批量启用待确认的推荐任务（deleted=1 改为 0，状态置为pending）
+     * @param ids 任务ID列表，不能为空
+     * @param userId 用户ID
+     * @param updateTime 更新时间
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE fixed_task SET deleted = 0, status = 'pending', update_time = #{updateTime} " +
+            "WHERE user_id = #{userId} AND deleted = 1 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int commitDraftsByIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                          @Param("updateTime") LocalDateTime updateTime);
+
+    /**
+     * 批量删除待确认的推荐任务
+     * @param ids 任务ID列表，不能为空
+     * @param userId 用户ID
+     * @return 影响行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM fixed_task WHERE user_id = #{userId} AND deleted = 1 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteDraftsByIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.lucius.bitgain.mapper;
+
+import com.lucius.bitgain.entity.RecommendActivity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 推荐活动数据访问层
+ */
+@Mapper
+public interface RecommendActivityMapper {
+
+    /**
+     * 查询全部未删除的推荐活动，供规则推荐引擎建立内存索引
+     *
+     * @return 推荐活动列表
+     */
+    @Select("SELECT id, title, description, category, duration, difficulty, skills_required, " +
+            "profession_match, popularity, tags FROM recommend_activity WHERE deleted = 0")
+    List<RecommendActivity> selectAll();
+}
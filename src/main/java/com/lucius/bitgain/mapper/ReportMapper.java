@@ -0,0 +1,96 @@
+package com.lucius.bitgain.mapper;
+
+import com.lucius.bitgain.entity.Report;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 报告数据访问层
+ */
+@Mapper
+public interface ReportMapper {
+
+    /**
+     * 保存报告，同一用户、类型、日期（uk_user_report）已存在时覆盖标题、内容和统计数据，不改变邮件发送状态
+     * 新增和覆盖时都会把报告ID回填到report.id
+     *
+     * @param report 报告
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO report (user_id, report_type, report_date, title, content, statistics, email_sent, create_time, update_time) " +
+            "VALUES (#{userId}, #{reportType}, #{reportDate}, #{title}, #{content}, #{statistics}, #{emailSent}, #{createTime}, #{updateTime}) " +
+            "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id), title = VALUES(title), content = VALUES(content), " +
+            "statistics = VALUES(statistics), update_time = VALUES(update_time)")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int upsert(Report report);
+
+    /**
+     * 标记报告邮件已发送
+     *
+     * @param id 报告ID
+     * @return 影响行数
+     */
+    @Update("UPDATE report SET email_sent = 1 WHERE id = #{id}")
+    int markEmailSent(@Param("id") Long id);
+
+    /**
+     * 查询一批用户中已生成指定类型和日期报告的用户ID
+     * 报告与其邮件在同一事务中写入，已生成报告即表示邮件已进入发件箱
+     *
+     * @param userIds    用户ID集合
+     * @param reportType 报告类型
+     * @param reportDate 报告日期
+     * @return 已生成报告的用户ID
+     */
+    @Select("<script>" +
+            "SELECT user_id FROM report WHERE report_type = #{reportType} AND report_date = #{reportDate} " +
+            "AND user_id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach>" +
+            "</script>")
+    List<Long> selectGeneratedUserIds(@Param("userIds") Collection<Long> userIds,
+                                       @Param("reportType") String reportType,
+                                       @Param("reportDate") LocalDate reportDate);
+
+    /**
+     * 按 (report_date, id) 游标分页查询用户的报告摘要（不含内容），最新的在前
+     *
+     * @param userId     用户ID
+     * @param reportType 报告类型，可为null
+     * @param cursorDate 上一页最后一条的报告日期，首页为null
+     * @param cursorId   上一页最后一条的ID，首页为null
+     * @param limit      查询条数
+     * @return 报告列表
+     */
+    @Select("<script>" +
+            "SELECT id, user_id, report_type, report_date, title, statistics, email_sent, create_time, update_time " +
+            "FROM report WHERE user_id = #{userId} " +
+            "<if test='reportType != null'>AND report_type = #{reportType} </if>" +
+            "<if test='cursorDate != null and cursorId != null'>" +
+            "AND report_date &lt;= #{cursorDate} AND (report_date &lt; #{cursorDate} OR id &lt; #{cursorId}) " +
+            "</if>" +
+            "ORDER BY report_date DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<Report> selectPageByUserId(@Param("userId") Long userId,
+                                    @Param("reportType") String reportType,
+                                    @Param("cursorDate") LocalDate cursorDate,
+                                    @Param("cursorId") Long cursorId,
+                                    @Param("limit") int limit);
+
+    /**
+     * 根据ID查询用户的报告
+     *
+     * @param id     报告ID
+     * @param userId 用户ID
+     * @return 报告
+     */
+    @Select("SELECT * FROM report WHERE id = #{id} AND user_id = #{userId}")
+    Report selectByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+}
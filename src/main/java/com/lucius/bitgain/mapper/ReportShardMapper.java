@@ -0,0 +1,90 @@
+package com.lucius.bitgain.mapper;
+
+import com.lucius.bitgain.entity.ReportShard;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 日报分片数据访问层
+ */
+@Mapper
+public interface ReportShardMapper {
+
+    /**
+     * 批量创建分片，(run_date, slot, shard_no) 已存在的分片保持不变，多个节点可以同时规划
+     *
+     * @param shards 分片列表
+     * @return 新创建的分片数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO report_shard (run_date, slot, shard_no, start_user_id, end_user_id, checkpoint_user_id, " +
+            "status, create_time, update_time) VALUES " +
+            "<foreach collection='shards' item='shard' separator=','>" +
+            "(#{shard.runDate}, #{shard.slot}, #{shard.shardNo}, #{shard.startUserId}, #{shard.endUserId}, #{shard.checkpointUserId}, " +
+            "#{shard.status}, #{shard.createTime}, #{shard.updateTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnore(@Param("shards") List<ReportShard> shards);
+
+    /**
+     * 锁定一个可认领的分片：未完成，且没有持有者或租约已过期，已被其他事务锁定的行直接跳过。必须在事务中调用。
+     *
+     * @param fromDate 日报日期起点（包含）
+     * @param toDate   日报日期终点（包含）
+     * @param now      当前时间
+     * @return 被锁定的分片，没有则为null
+     */
+    @Select("SELECT * FROM report_shard " +
+            "WHERE run_date BETWEEN #{fromDate} AND #{toDate} AND status <> 'done' " +
+            "AND (lease_until IS NULL OR lease_until < #{now}) " +
+            "ORDER BY run_date, id LIMIT 1 " +
+            "FOR UPDATE SKIP LOCKED")
+    ReportShard selectClaimableForUpdate(@Param("fromDate") LocalDate fromDate,
+                                         @Param("toDate") LocalDate toDate,
+                                         @Param("now") LocalDateTime now);
+
+    /**
+     * 认领分片
+     *
+     * @param id         分片ID
+     * @param owner      节点标识
+     * @param leaseUntil 租约到期时间
+     * @return 影响行数
+     */
+    @Update("UPDATE report_shard SET status = 'running', owner = #{owner}, lease_until = #{leaseUntil} WHERE id = #{id}")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 记录检查点并续租，租约已被其他节点接管时不更新
+     *
+     * @param id               分片ID
+     * @param owner            节点标识
+     * @param checkpointUserId 已处理完的最后一个用户ID
+     * @param leaseUntil       新的租约到期时间
+     * @return 影响行数，为0表示租约已丢失
+     */
+    @Update("UPDATE report_shard SET checkpoint_user_id = #{checkpointUserId}, lease_until = #{leaseUntil} " +
+            "WHERE id = #{id} AND owner = #{owner} AND status = 'running'")
+    int checkpoint(@Param("id") Long id,
+                   @Param("owner") String owner,
+                   @Param("checkpointUserId") Long checkpointUserId,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * 标记分片完成并释放租约
+     *
+     * @param id    分片ID
+     * @param owner 节点标识
+     * @return 影响行数，为0表示租约已丢失
+     */
+    @Update("UPDATE report_shard SET status = 'done', lease_until = NULL " +
+            "WHERE id = #{id} AND owner = #{owner} AND status = 'running'")
+    int complete(@Param("id") Long id, @Param("owner") String owner);
+}
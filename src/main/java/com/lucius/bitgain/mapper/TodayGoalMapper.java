@@ -4,6 +4,7 @@ import com.lucius.bitgain.entity.TodayGoal;
 import org.apache.ibatis.annotations.*;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -60,6 +61,33 @@ public interface TodayGoalMapper {
     @Select("SELECT * FROM today_goal WHERE user_id = #{userId} ORDER BY create_time DESC")
     List<TodayGoal> selectByUserId(Long userId);
 
+    /**
+     * 按 (create_time, id) 游标分页查询用户的今日目标，最新的在前
+     *
+     * @param userId     用户ID
+     * @param cursorTime 上一页最后一条的创建时间，首页为null
+     * @param cursorId   上一页最后一条的ID，首页为null
+     * @param from       创建时间下限（包含），可为null
+     * @param to         创建时间上限（不包含），可为null
+     * @param limit      查询条数
+     * @return 今日目标列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM today_goal WHERE user_id = #{userId} " +
+            "<if test='from != null'>AND create_time &gt;= #{from} </if>" +
+            "<if test='to != null'>AND create_time &lt; #{to} </if>" +
+            "<if test='cursorTime != null and cursorId != null'>" +
+            "AND create_time &lt;= #{cursorTime} AND (create_time &lt; #{cursorTime} OR id &lt; #{cursorId}) " +
+            "</if>" +
+            "ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<TodayGoal> selectPageByUserId(@Param("userId") Long userId,
+                                       @Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("limit") int limit);
+
     /**
      * 根据用户ID和目标ID查询今日目标
      *
@@ -80,4 +108,22 @@ public interface TodayGoalMapper {
     int deleteByUserId(Long userId);
     @Select("SELECT * FROM today_goal WHERE user_id = #{userId} AND create_time >= #{startOfDay} AND create_time < #{endOfDay}")
     List<TodayGoal> selectByUserIdAndTime(Long userId, LocalDateTime startOfDay, LocalDateTime endOfDay);
+
+    /**
+     * 批量查询多个用户在时间范围内创建的今日目标
+     *
+     * @param userIds    用户ID集合
+     * @param startOfDay 开始时间
+     * @param endOfDay   结束时间
+     * @return 今日目标列表，按用户ID和创建时间排序
+     */
+    @Select("<script>" +
+            "SELECT * FROM today_goal WHERE user_id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach> " +
+            "AND create_time &gt;= #{startOfDay} AND create_time &lt; #{endOfDay} " +
+            "ORDER BY user_id, create_time" +
+            "</script>")
+    List<TodayGoal> selectByUserIdsAndTime(@Param("userIds") Collection<Long> userIds,
+                                           @Param("startOfDay") LocalDateTime startOfDay,
+                                           @Param("endOfDay") LocalDateTime endOfDay);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.lucius.bitgain.entity.User;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
@@ -37,12 +38,65 @@ public interface UserMapper {
     /**
      * 更新用户信息
      */
-    @Update("update user set username = #{username}, phone = #{phone}, email = #{email}, profession = #{profession}, skills = #{skills}, goals = #{goals}, email_subscribe = #{emailSubscribe}, update_time = #{updateTime} where id = #{id}")
+    @Update("update user set username = #{username}, phone = #{phone}, email = #{email}, profession = #{profession}, skills = #{skills}, goals = #{goals}, email_subscribe = #{emailSubscribe}, " +
+            "timezone = coalesce(#{timezone}, timezone), delivery_hour = coalesce(#{deliveryHour}, delivery_hour), update_time = #{updateTime} where id = #{id}")
     int updateUser(User user);
 
     /**
-     * 查询所有开启邮件订阅的用户
+     * 查询用户固定任务的版本号，用户不存在时返回null
      */
-    @Select("select * from user where email_subscribe = 1 and deleted = 0 and email is not null")
-    List<User> getSubscribedUsers();
+    @Select("select schedule_version from user where id = #{userId}")
+    Long getScheduleVersion(Long userId);
+
+    /**
+     * 递增用户固定任务的版本号，不改变update_time
+     */
+    @Update("update user set schedule_version = schedule_version + 1, update_time = update_time where id = #{userId}")
+    int increaseScheduleVersion(Long userId);
+
+    /**
+     * 按主键游标分批查询投递时段内开启邮件订阅的用户，只返回日报需要的字段（不含密码、技能等）
+     *
+     * @param lastId       上一批最后一个用户ID，首批传分片起点-1
+     * @param endId        用户ID上界（不包含）
+     * @param timezone     时区
+     * @param deliveryHour 投递小时
+     * @param limit        每批数量
+     */
+    @Select("select id, username, email, profession, goals, timezone, delivery_hour from user " +
+            "where email_subscribe = 1 and timezone = #{timezone} and delivery_hour = #{deliveryHour} " +
+            "and deleted = 0 and email is not null and id > #{lastId} and id < #{endId} " +
+            "order by id limit #{limit}")
+    List<User> getSubscribedUsersAfter(@Param("lastId") Long lastId,
+                                       @Param("endId") Long endId,
+                                       @Param("timezone") String timezone,
+                                       @Param("deliveryHour") int deliveryHour,
+                                       @Param("limit") int limit);
+
+    /**
+     * 查询投递时段内开启邮件订阅的最小用户ID，没有订阅用户时返回null
+     *
+     * @param timezone     时区
+     * @param deliveryHour 投递小时
+     */
+    @Select("select min(id) from user where email_subscribe = 1 and timezone = #{timezone} " +
+            "and delivery_hour = #{deliveryHour} and deleted = 0 and email is not null")
+    Long getMinSubscribedUserId(@Param("timezone") String timezone, @Param("deliveryHour") int deliveryHour);
+
+    /**
+     * 查询投递时段内开启邮件订阅的最大用户ID，没有订阅用户时返回null
+     *
+     * @param timezone     时区
+     * @param deliveryHour 投递小时
+     */
+    @Select("select max(id) from user where email_subscribe = 1 and timezone = #{timezone} " +
+            "and delivery_hour = #{deliveryHour} and deleted = 0 and email is not null")
+    Long getMaxSubscribedUserId(@Param("timezone") String timezone, @Param("deliveryHour") int deliveryHour);
+
+    /**
+     * 查询订阅用户分布的所有投递时段，只返回timezone和delivery_hour
+     */
+    @Select("select distinct timezone, delivery_hour from user " +
+            "where email_subscribe = 1 and deleted = 0 and email is not null")
+    List<User> getSubscribedDeliverySlots();
 }
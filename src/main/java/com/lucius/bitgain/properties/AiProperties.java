@@ -0,0 +1,166 @@
+package com.lucius.bitgain.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * AI相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bitgain.ai")
+public class AiProperties {
+
+    /**
+     * AI推荐会话执行配置
+     */
+    private Session session = new Session();
+
+    /**
+     * AI推荐结果缓存配置
+     */
+    private Recommendation recommendation = new Recommendation();
+
+    /**
+     * AI提示组装配置
+     */
+    private Prompt prompt = new Prompt();
+
+    /**
+     * 规则推荐引擎配置
+     */
+    private RuleEngine ruleEngine = new RuleEngine();
+
+    /**
+     * ChatClient调用保护配置（熔断、并发隔离、截止时间），每个ChatClient独立计数
+     */
+    private Resilience resilience = new Resilience();
+
+    @Data
+    public static class Session {
+        /**
+         * 单节点同时进行的AI会话上限
+         */
+        private int maxConcurrent = 32;
+
+        /**
+         * 单个用户同时进行的AI会话上限
+         */
+        private int maxPerUser = 1;
+
+        /**
+         * 等待队列容量，队列满后新会话直接拒绝
+         */
+        private int queueCapacity = 200;
+
+        /**
+         * 单个会话最长占用名额的时间（毫秒），超时后强制释放
+         */
+        private long maxSessionMillis = 300000;
+
+        /**
+         * SSE连接的截止时间，超时后结束连接并取消上游AI流
+         */
+        private Duration sseTimeout = Duration.ofMinutes(3);
+
+        /**
+         * SSE心跳间隔，心跳写入失败即认为客户端已断开
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+    }
+
+    @Data
+    public static class Recommendation {
+        /**
+         * 最多缓存的用户数，超出后按最近最少使用淘汰
+         */
+        private long maxSize = 10000;
+
+        /**
+         * 缓存有效期
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+        /**
+         * 同步推荐请求的最长等待时间，超过后返回错误；等待期间不占用请求线程
+         */
+        private Duration joinTimeout = Duration.ofMinutes(3);
+
+        /**
+         * AI推荐的截止时间，超过后取消AI生成并改用规则推荐
+         */
+        private Duration deadline = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Prompt {
+        /**
+         * 单次AI推荐的输入token预算（系统提示 + 用户提示），超出时截断技能和目标文本
+         */
+        private int maxInputTokens = 4000;
+    }
+
+    @Data
+    public static class RuleEngine {
+        /**
+         * 单次规则推荐的活动数上限
+         */
+        private int topK = 4;
+
+        /**
+         * 同一分类最多推荐的活动数
+         */
+        private int maxPerCategory = 2;
+
+        /**
+         * 活动库索引的重建间隔
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Resilience {
+        /**
+         * 单个ChatClient同时进行的AI调用上限，超出直接拒绝
+         */
+        private int maxConcurrent = 32;
+
+        /**
+         * 单次AI调用的截止时间，超时后取消调用；业务可设置更短的截止时间
+         */
+        private Duration deadline = Duration.ofSeconds(90);
+
+        /**
+         * 慢调用阈值，超过该耗时的调用按失败计入熔断统计
+         */
+        private Duration slowCallThreshold = Duration.ofSeconds(30);
+
+        /**
+         * 统计失败率的最近调用数
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * 计算失败率所需的最少调用数
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * 打开熔断的失败率（百分比）
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 熔断打开后进入半开状态前的等待时间
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * 半开状态放行的试探调用数，全部成功后关闭熔断
+         */
+        private int halfOpenCalls = 3;
+    }
+}
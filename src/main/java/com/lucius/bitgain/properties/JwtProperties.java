@@ -16,5 +16,9 @@ public class JwtProperties {
     private String userSecretKey;
     private long userTtl;
     private String userTokenName;
+    /**
+     * 已验证令牌缓存的最大条目数
+     */
+    private long verifyCacheSize = 10000;
 
 }
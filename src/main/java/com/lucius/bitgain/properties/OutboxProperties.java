@@ -0,0 +1,73 @@
+package com.lucius.bitgain.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 邮件发件箱配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bitgain.outbox")
+public class OutboxProperties {
+
+    /**
+     * 是否在本节点启动发送线程，多节点部署时发送线程可以只在部分节点开启
+     */
+    private boolean enabled = true;
+
+    /**
+     * 发送线程数，每个线程独立认领邮件
+     */
+    private int workers = 4;
+
+    /**
+     * 每次认领的邮件数
+     */
+    private int claimBatchSize = 20;
+
+    /**
+     * 复用同一个SMTP连接连续发送的邮件数，为1时每封邮件单独建立连接
+     * 认领的一批邮件会再按该大小分组发送，应不大于claimBatchSize
+     */
+    private int sendBatchSize = 20;
+
+    /**
+     * 本节点每秒最多发送的邮件数（令牌桶速率），不大于0时不限速
+     * 多节点部署时总速率为各节点之和，应按邮件服务商的限额分摊
+     */
+    private double ratePerSecond = 10;
+
+    /**
+     * 令牌桶容量，空闲后最多可以连续发送的邮件数
+     */
+    private int burst = 20;
+
+    /**
+     * 没有待发送邮件时的轮询间隔
+     */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /**
+     * 认领租约时长，超过该时间仍未记录结果的邮件会被重新认领
+     */
+    private Duration leaseTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 最多发送次数（含首次），用尽后标记为failed
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 首次重试的等待时间，之后每次翻倍
+     */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    /**
+     * 重试等待时间上限
+     */
+    private Duration maxBackoff = Duration.ofMinutes(30);
+}
@@ -0,0 +1,37 @@
+package com.lucius.bitgain.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分页查询配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bitgain.page")
+public class PageProperties {
+
+    /**
+     * 未指定每页条数时的默认值
+     */
+    private int defaultSize = 20;
+
+    /**
+     * 每页条数上限
+     */
+    private int maxSize = 100;
+
+    /**
+     * 将请求的每页条数限制在 [1, maxSize] 内，未指定时使用默认值
+     *
+     * @param requested 请求的每页条数
+     * @return 实际使用的每页条数
+     */
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,66 @@
+package com.lucius.bitgain.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 日报相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bitgain.report")
+public class ReportProperties {
+
+    /**
+     * 日报邮件的投递窗口，每个用户的邮件在其本地投递时刻之后的窗口内按固定偏移投递，为0时生成后立即投递
+     */
+    private Duration deliveryWindow = Duration.ofMinutes(15);
+
+    /**
+     * 投递时间轮的重建间隔，用于跟随投递时段的增减和夏令时切换
+     */
+    private Duration wheelRefreshInterval = Duration.ofHours(1);
+
+    /**
+     * 节点启动或调度延迟时向前补查的时长，补查范围内到期的时段会被重新规划（已规划的分片不会重复创建）
+     */
+    private Duration catchUp = Duration.ofMinutes(5);
+
+    /**
+     * 每批扫描的订阅用户数，处理完一批再读取下一批
+     */
+    private int scanChunkSize = 500;
+
+    /**
+     * 同时生成和发送日报的线程数，应小于数据库连接池大小
+     */
+    private int concurrency = 8;
+
+    /**
+     * 排队等待的日报任务上限，达到上限后扫描暂停
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * 每轮发送等待全部任务结束的最长时间
+     */
+    private Duration awaitTimeout = Duration.ofMinutes(30);
+
+    /**
+     * 每个分片覆盖的用户ID跨度，分片按 [n * shardSpan + 1, (n + 1) * shardSpan + 1) 划分
+     */
+    private long shardSpan = 10000;
+
+    /**
+     * 分片租约时长，每处理完一批用户续租一次，节点宕机后租约过期由其他节点接管
+     */
+    private Duration shardLeaseTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 检查并接管未完成分片的间隔
+     */
+    private Duration resumeInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,53 @@
+package com.lucius.bitgain.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * 日程相关配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "bitgain.schedule")
+public class ScheduleProperties {
+
+    /**
+     * 每日可安排时间的开始时刻
+     */
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime workStart = LocalTime.of(8, 0);
+
+    /**
+     * 每日可安排时间的结束时刻
+     */
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime workEnd = LocalTime.of(22, 0);
+
+    /**
+     * 空闲时间段的最短时长（分钟），更短的间隙不计入空闲时间
+     */
+    private int minFreeMinutes = 5;
+
+    /**
+     * 固定任务时间冲突索引配置
+     */
+    private ConflictIndex conflictIndex = new ConflictIndex();
+
+    @Data
+    public static class ConflictIndex {
+        /**
+         * 最多缓存索引的用户数，超出后按最近最少使用淘汰
+         */
+        private long maxUsers = 10000;
+
+        /**
+         * 索引在最后一次访问后的保留时间
+         */
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+    }
+}
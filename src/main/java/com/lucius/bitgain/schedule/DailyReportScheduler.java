@@ -1,6 +1,7 @@
 package com.lucius.bitgain.schedule;
 
 import com.lucius.bitgain.service.DailyReportService;
+import com.lucius.bitgain.utils.ReportExecutor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -17,33 +18,35 @@ public class DailyReportScheduler {
     private DailyReportService dailyReportService;
 
     /**
-     * 每日20:00发送日报
-     * cron表达式: 秒 分 时 日 月 周
-     * 0 0 20 * * ? 表示每天20:00:00执行
+     * 每分钟检查一次日报时间轮，为本地时间刚好到达投递小时的用户生成日报
+     * 用户的时区和投递小时见 user.timezone / user.delivery_hour
      */
-    @Scheduled(cron = "0 43 20 * * ?")
-    public void sendDailyReports() {
-        log.info("开始执行日报发送定时任务");
+    @Scheduled(cron = "0 * * * * *")
+    public void sendDueDailyReports() {
         try {
-            dailyReportService.sendDailyReportsToAllSubscribers();
-            log.info("日报发送定时任务执行完成");
+            ReportExecutor.BatchResult result = dailyReportService.sendDueDailyReports();
+            if (result != null) {
+                log.info("日报发送定时任务执行{}，耗时{}ms，成功{}个，失败{}个",
+                        result.completed() ? "完成" : "未完成", result.durationMillis(), result.succeeded(), result.failed());
+            }
         } catch (Exception e) {
             log.error("日报发送定时任务执行失败: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * 测试用的定时任务，每分钟执行一次（仅用于开发测试）
-     * 生产环境请注释掉此方法
+     * 定期接管租约已过期的日报分片（节点宕机或重启后从检查点继续）
      */
-    // @Scheduled(cron = "0 * * * * ?")
-    public void sendDailyReportsForTest() {
-        log.info("执行测试日报发送任务");
+    @Scheduled(initialDelayString = "${bitgain.report.resume-interval}", fixedDelayString = "${bitgain.report.resume-interval}")
+    public void resumeDailyReports() {
         try {
-            dailyReportService.sendDailyReportsToAllSubscribers();
-            log.info("测试日报发送任务执行完成");
+            ReportExecutor.BatchResult result = dailyReportService.resumeDailyReports();
+            if (result != null && result.succeeded() + result.failed() > 0) {
+                log.info("接管未完成的日报分片{}，耗时{}ms，成功{}个，失败{}个",
+                        result.completed() ? "完成" : "未完成", result.durationMillis(), result.succeeded(), result.failed());
+            }
         } catch (Exception e) {
-            log.error("测试日报发送任务执行失败: {}", e.getMessage(), e);
+            log.error("接管日报分片失败: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -2,19 +2,39 @@ package com.lucius.bitgain.service;
 
 import com.lucius.bitgain.dto.TaskActionDTO;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.TaskActionResultVO;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
 
 public interface BitGainDesignService {
-    void bitGainDesign(SseEmitter emitter,Long userId);
+
+    /**
+     * 推荐模式：AI生成，失败或超时时改用规则推荐
+     */
+    String MODE_AI = "ai";
+
+    /**
+     * 推荐模式：只用规则推荐引擎从活动库推荐
+     */
+    String MODE_RULE = "rule";
+
+    /**
+     * 基于SSE的任务推荐
+     * @param emitter SSE连接
+     * @param userId 用户ID
+     * @param mode 推荐模式：ai 或 rule
+     */
+    void bitGainDesign(SseEmitter emitter, Long userId, String mode);
     
     /**
-     * AI任务推荐
+     * AI任务推荐，异步返回结果，等待生成期间不占用请求线程
+     * @param mode 推荐模式：ai 或 rule
      * @return 推荐任务详情列表
      */
-    Result<List<Map<String, Object>>> recommendTasks();
+    DeferredResult<Result<List<Map<String, Object>>>> recommendTasks(String mode);
     
     /**
      * 确认推荐任务
@@ -22,4 +42,11 @@ public interface BitGainDesignService {
      * @return 确认结果
      */
     Result<String> confirmRecommendedTasks(List<TaskActionDTO> taskActions);
+    
+    /**
+     * 批量确认推荐任务，返回每个任务的处理结果
+     * @param taskActions 用户对推荐任务的操作列表
+     * @return 每个任务的处理结果
+     */
+    Result<List<TaskActionResultVO>> batchConfirmRecommendedTasks(List<TaskActionDTO> taskActions);
 }
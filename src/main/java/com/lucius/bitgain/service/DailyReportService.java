@@ -1,6 +1,7 @@
 package com.lucius.bitgain.service;
 
 import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.utils.ReportExecutor;
 
 /**
  * 日报服务接口
@@ -8,14 +9,24 @@ import com.lucius.bitgain.entity.User;
 public interface DailyReportService {
 
     /**
-     * 为指定用户生成并发送日报
+     * 为指定用户生成日报并写入邮件发件箱
      *
      * @param user 用户信息
      */
     void generateAndSendDailyReport(User user);
 
     /**
-     * 为所有订阅用户发送日报
+     * 从时间轮取出本地时间已到达投递小时的投递时段，规划这些时段当天的日报分片，
+     * 并与其他节点一起认领分片为订阅用户生成日报、写入邮件发件箱，本节点没有可认领的分片后返回
+     *
+     * @return 本轮生成的成功、失败数量和耗时，没有可认领的分片时返回null
+     */
+    ReportExecutor.BatchResult sendDueDailyReports();
+
+    /**
+     * 接管租约已过期的未完成分片，从检查点继续生成日报
+     *
+     * @return 本次接管处理的成功、失败数量和耗时，没有可认领的分片时返回null
      */
-    void sendDailyReportsToAllSubscribers();
+    ReportExecutor.BatchResult resumeDailyReports();
 }
@@ -3,8 +3,11 @@ package com.lucius.bitgain.service;
 import com.lucius.bitgain.dto.FixedTaskCreateDTO;
 import com.lucius.bitgain.dto.FixedTaskUpdateDTO;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.FixedTaskVO;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -47,6 +50,18 @@ public interface FixedTaskService {
      */
     Result<List<FixedTaskVO>> getMyFixedTasks();
 
+    /**
+     * 按开始时间游标分页查询当前用户的固定任务
+     * @param cursorTime 上一页返回的nextCursorTime，首页不传
+     * @param cursorId 上一页返回的nextCursorId，首页不传
+     * @param size 每页条数
+     * @param startDate 开始日期（包含），可为空
+     * @param endDate 结束日期（包含），可为空
+     * @return 分页结果
+     */
+    Result<CursorPageVO<FixedTaskVO>> getMyFixedTasksPage(LocalDateTime cursorTime, Long cursorId, Integer size,
+                                                          LocalDate startDate, LocalDate endDate);
+
     /**
      * 根据时间范围查询当前用户的固定任务
      * @param startTime 开始时间
@@ -54,4 +69,11 @@ public interface FixedTaskService {
      * @return 固定任务列表
      */
     Result<List<FixedTaskVO>> getFixedTasksByTimeRange(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 查询当前用户指定日期的空闲时间段
+     * @param date 日期
+     * @return 空闲时间段列表
+     */
+    Result<List<FreeTimeSlotVO>> getFreeTimeSlots(LocalDate date);
 }
\ No newline at end of file
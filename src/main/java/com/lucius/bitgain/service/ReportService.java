@@ -0,0 +1,30 @@
+package com.lucius.bitgain.service;
+
+import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
+import com.lucius.bitgain.vo.ReportVO;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报告查询业务逻辑接口
+ */
+public interface ReportService {
+
+    /**
+     * 按报告日期倒序游标分页查询当前用户的历史报告（不含内容）
+     * @param reportType 报告类型，为空时查询全部类型
+     * @param cursorTime 上一页返回的nextCursorTime，首页不传
+     * @param cursorId 上一页返回的nextCursorId，首页不传
+     * @param size 每页条数
+     * @return 分页结果
+     */
+    Result<CursorPageVO<ReportVO>> getMyReports(String reportType, LocalDateTime cursorTime, Long cursorId, Integer size);
+
+    /**
+     * 查询当前用户的报告详情
+     * @param id 报告ID
+     * @return 报告详情
+     */
+    Result<ReportVO> getMyReportById(Long id);
+}
@@ -1,8 +1,11 @@
 package com.lucius.bitgain.service;
 
 import com.lucius.bitgain.dto.TodayGoalDTO;
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.TodayGoalVO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -49,6 +52,19 @@ public interface TodayGoalService {
      */
     List<TodayGoalVO> getMyTodayGoals();
 
+    /**
+     * 按创建时间游标分页查询当前用户的今日目标，最新的在前
+     *
+     * @param cursorTime 上一页返回的nextCursorTime，首页不传
+     * @param cursorId   上一页返回的nextCursorId，首页不传
+     * @param size       每页条数
+     * @param startDate  开始日期（包含），可为空
+     * @param endDate    结束日期（包含），可为空
+     * @return 分页结果
+     */
+    CursorPageVO<TodayGoalVO> getMyTodayGoalsPage(LocalDateTime cursorTime, Long cursorId, Integer size,
+                                                  LocalDate startDate, LocalDate endDate);
+
     /**
      * 删除当前用户的所有今日目标
      */
@@ -5,7 +5,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.lucius.bitgain.constant.AIConstant;
 import com.lucius.bitgain.context.BaseContext;
 import com.lucius.bitgain.dto.TaskActionDTO;
 import com.lucius.bitgain.entity.FixedTask;
@@ -14,29 +13,66 @@ import com.lucius.bitgain.entity.User;
 import com.lucius.bitgain.mapper.FixedTaskMapper;
 import com.lucius.bitgain.mapper.TodayGoalMapper;
 import com.lucius.bitgain.mapper.UserMapper;
+import com.lucius.bitgain.properties.AiProperties;
 import com.lucius.bitgain.service.BitGainDesignService;
+import com.lucius.bitgain.utils.AiSessionExecutor;
+import com.lucius.bitgain.utils.FreeTimeCalculator;
+import com.lucius.bitgain.utils.RecommendationCache;
+import com.lucius.bitgain.utils.RecommendationPromptAssembler;
+import com.lucius.bitgain.utils.RecommendationRuleEngine;
+import com.lucius.bitgain.utils.RecommendationSingleFlight;
+import com.lucius.bitgain.utils.TimeConflictValidator;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.utils.SseSessionManager;
+import com.lucius.bitgain.utils.StreamingTaskParser;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import com.lucius.bitgain.vo.TaskActionResultVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BitGainDesignServiceImpl implements BitGainDesignService {
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    @Autowired
+    private AiSessionExecutor aiSessionExecutor;
+    @Autowired
+    private RecommendationCache recommendationCache;
+    @Autowired
+    private SseSessionManager sseSessionManager;
+    @Autowired
+    private RecommendationPromptAssembler recommendationPromptAssembler;
+    @Autowired
+    private RecommendationSingleFlight recommendationSingleFlight;
+    @Autowired
+    private RecommendationRuleEngine recommendationRuleEngine;
+    @Autowired
+    private AiProperties aiProperties;
+    @Autowired
+    private FreeTimeCalculator freeTimeCalculator;
+    @Autowired
+    private TimeConflictValidator timeConflictValidator;
     @Autowired
     private ChatClient bitGainChatClient;
     
@@ -48,178 +84,329 @@ public class BitGainDesignServiceImpl implements BitGainDesignService {
     @Autowired
     private TodayGoalMapper todayGoalMapper;
     @Override
-    public void bitGainDesign(SseEmitter emitter, Long userId) {
-        executorService.submit(() -> {
+    public void bitGainDesign(SseEmitter emitter, Long userId, String mode) {
+        // 获取当前用户ID
+        if (userId == null) {
+            emitter.completeWithError(new RuntimeException("用户未登录"));
+            return;
+        }
+        try {
+            // 查询用户信息
+            User user = userMapper.getUserById(userId);
+            if (user == null) {
+                emitter.completeWithError(new RuntimeException("用户不存在"));
+                return;
+            }
+
+            // 构建AI提示内容，相同用户、相同提示的并发请求合并到同一次生成
+            TodayContext context = loadTodayContext(user);
+            String userPrompt = buildUserPrompt(context);
+            String fingerprint = RecommendationCache.fingerprint(userPrompt);
+            boolean ruleMode = MODE_RULE.equals(mode);
+            RecommendationSingleFlight.Joined joined =
+                    recommendationSingleFlight.join(userId, ruleMode ? MODE_RULE + ":" + fingerprint : fingerprint);
+            RecommendationSingleFlight.Flight flight = joined.flight();
+            // 客户端断开或超时后释放租约，所有请求都离开后取消上游流，模型不再继续生成
+            sseSessionManager.bind(emitter, flight.attach(emitter));
+            if (!joined.leader()) {
+                return;
+            }
+            if (ruleMode) {
+                // 规则推荐在微秒级完成，不占用AI会话名额
+                generateRuleRecommendation(flight, context, null);
+                return;
+            }
+
+            boolean accepted = aiSessionExecutor.submit(userId, emitter,
+                    () -> generateRecommendation(flight, context, userPrompt, fingerprint, true));
+            if (!accepted) {
+                flight.fail("当前AI推荐请求过多，请稍后再试", new RuntimeException("AI会话被拒绝"));
+            }
+        } catch (Exception e) {
+            log.error("bitGainDesign执行失败", e);
             try {
-                // 发送开始信息
-                
-                // 获取当前用户ID
-                if (userId == null) {
-                    emitter.completeWithError(new RuntimeException("用户未登录"));
-                    return;
-                }
-                
-                // 查询用户信息
-                User user = userMapper.getUserById(userId);
-                if (user == null) {
-                    return;
-                }
-                
-                // 查询今日固定任务
-                LocalDate today = LocalDate.now();
-                LocalDateTime startOfDay = today.atStartOfDay();
-                LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
-                List<FixedTask> todayTasks = fixedTaskMapper.selectByUserIdAndTimeRange(userId, startOfDay, endOfDay);
-                List<TodayGoal> todayGoals = todayGoalMapper.selectByUserIdAndTime(userId,startOfDay, endOfDay);
-                // 构建AI提示内容
-                String userPrompt = buildUserPrompt(user, todayTasks, todayGoals);
-                
-                // 调用AI接口生成推荐
-                StringBuilder aiResponse = new StringBuilder();
-                
-                bitGainChatClient.prompt(AIConstant.MAIN+" /no-think ")
-                        .user(userPrompt+"```json ```是不合法的，不允许出现")
-                        .stream()
-                        .content()
-                        .subscribe(
-                                // 每次收到AI响应片段时发送给前端
-                                aiResponse::append,
-                                error -> {
-                                    log.error("AI调用失败", error);
-                                    try {
-                                        emitter.send("错误：AI调用失败 - " + error.getMessage());
-                                        emitter.completeWithError(error);
-                                    } catch (IOException e) {
-                                        log.error("发送错误消息失败", e);
-                                    }
-                                },
-                                () -> {
-                                    try {
-                                        // AI响应完成，解析并保存任务
-                                        System.out.println("AI响应: " + aiResponse);
-                                        List<Map<String, Object>> taskDetails = parseAIResponseAndSaveTasks(aiResponse.toString(), userId);
-                                        
-                                        // 发送任务详情给前端
-                                        Gson gson = new Gson();
-                                        emitter.send(SseEmitter.event()
-                                            .data(gson.toJson(taskDetails)));
-                                        emitter.send("end");
-                                        emitter.complete();
-                                        
-                                        log.info("用户{}的AI任务推荐完成，生成{}个任务", userId, taskDetails.size());
-                                    } catch (Exception e) {
-                                        log.error("解析AI响应失败", e);
-                                        try {
-                                            emitter.send("错误：解析AI响应失败 - " + e.getMessage());
-                                            emitter.completeWithError(e);
-                                        } catch (IOException ioException) {
-                                            log.error("发送错误消息失败", ioException);
-                                        }
-                                    }
-                                }
-                        );
-                        
-            } catch (Exception e) {
-                log.error("bitGainDesign执行失败", e);
-                try {
-                    emitter.send("系统错误：" + e.getMessage());
-                    emitter.completeWithError(e);
-                } catch (IOException ioException) {
-                    log.error("发送错误消息失败", ioException);
-                }
+                emitter.send("系统错误：" + e.getMessage());
+                emitter.completeWithError(e);
+            } catch (IOException ioException) {
+                log.error("发送错误消息失败", ioException);
             }
-        });
+        }
     }
     
     @Override
-    public Result<List<Map<String, Object>>> recommendTasks() {
+    public DeferredResult<Result<List<Map<String, Object>>>> recommendTasks(String mode) {
+        // 生成期间不占用请求线程，等待进行中的相同推荐的请求同样异步返回
+        DeferredResult<Result<List<Map<String, Object>>>> deferred =
+                new DeferredResult<>(aiProperties.getRecommendation().getJoinTimeout().toMillis());
+        deferred.onTimeout(() -> deferred.setResult(Result.error("AI任务推荐失败: 等待进行中的AI推荐超时")));
         try {
             // 获取当前用户ID
             Long userId = BaseContext.getCurrentId();
             if (userId == null) {
-                return Result.error("用户未登录");
+                deferred.setResult(Result.error("用户未登录"));
+                return deferred;
             }
             
-            log.info("开始为用户{}生成AI任务推荐", userId);
+            boolean ruleMode = MODE_RULE.equals(mode);
+            log.info("开始为用户{}生成{}任务推荐", userId, ruleMode ? "规则" : "AI");
             
             // 1. 查询用户信息
             User user = userMapper.getUserById(userId);
             if (user == null) {
-                return Result.error("用户不存在");
+                deferred.setResult(Result.error("用户不存在"));
+                return deferred;
             }
             
-            // 2. 查询用户今日固定任务
-            LocalDate today = LocalDate.now();
-            LocalDateTime startOfDay = today.atStartOfDay();
-            LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
-            List<FixedTask> todayTasks = fixedTaskMapper.selectByUserIdAndTimeRange(userId, startOfDay, endOfDay);
-            
-            // 查询用户今日目标
-            List<TodayGoal> todayGoals = todayGoalMapper.selectByUserIdAndTime(userId, startOfDay, endOfDay);
-            
-            // 3. 构建AI提示内容
-            String userPrompt = buildUserPrompt(user, todayTasks, todayGoals);
+            // 2. 构建AI提示内容
+            TodayContext context = loadTodayContext(user);
+            String userPrompt = buildUserPrompt(context);
             log.info("构建的用户提示内容: {}", userPrompt);
             
-            // 4. 调用AI接口
-            String aiResponse = bitGainChatClient.prompt()
-                    .system(AIConstant.MAIN)
-                    .user(userPrompt)
-                    .call()
-                    .content();
+            // 3. 相同用户、相同提示的并发请求合并到同一次生成，由第一个请求执行
+            String fingerprint = RecommendationCache.fingerprint(userPrompt);
+            RecommendationSingleFlight.Joined joined =
+                    recommendationSingleFlight.join(userId, ruleMode ? MODE_RULE + ":" + fingerprint : fingerprint);
+            RecommendationSingleFlight.Flight flight = joined.flight();
+            // 请求结束（返回、超时或客户端断开）时释放租约，所有请求都离开后取消生成
+            Disposable lease = flight.lease();
+            deferred.onCompletion(lease::dispose);
+            flight.whenDone((taskDetails, error) -> {
+                if (error != null) {
+                    log.error("AI任务推荐失败", error);
+                    deferred.setResult(Result.error("AI任务推荐失败: " + error.getMessage()));
+                    return;
+                }
+                log.info("成功生成{}个推荐任务", taskDetails.size());
+                deferred.setResult(Result.success(taskDetails));
+            });
+            if (joined.leader() && ruleMode) {
+                generateRuleRecommendation(flight, context, null);
+            } else if (joined.leader()) {
+                generateRecommendation(flight, context, userPrompt, fingerprint, false);
+            }
             
-            log.info("AI返回内容: {}", aiResponse);
+        } catch (Exception e) {
+            log.error("AI任务推荐失败", e);
+            deferred.setResult(Result.error("AI任务推荐失败: " + e.getMessage()));
+        }
+        return deferred;
+    }
+    
+    /**
+     * 执行一次AI推荐生成，结果通过flight推送给所有合并的请求
+     * 输入没有变化时直接复用缓存的推荐结果；stream为true时任务对象一闭合就解析、保存并推送。
+     * AI调用失败、超过截止时间或没有识别到任务时改用规则推荐。
+     */
+    private void generateRecommendation(RecommendationSingleFlight.Flight flight, TodayContext context,
+                                        String userPrompt, String fingerprint, boolean stream) {
+        Long userId = context.user().getId();
+        if (flight.isCancelled()) {
+            log.info("用户{}的AI推荐请求在排队期间均已断开，跳过生成", userId);
+            return;
+        }
+        Duration deadline = aiProperties.getRecommendation().getDeadline();
+        try {
+            String cachedResponse = recommendationCache.get(userId, fingerprint);
+            if (cachedResponse != null) {
+                List<Map<String, Object>> taskDetails = parseAIResponseAndSaveTasks(cachedResponse, userId);
+                taskDetails.forEach(flight::publish);
+                flight.complete(taskDetails);
+                log.info("用户{}命中AI推荐缓存，生成{}个任务", userId, taskDetails.size());
+                return;
+            }
             
-            // 5. 解析AI返回的JSON
-            List<Map<String, Object>> taskDetails = parseAIResponseAndSaveTasks(aiResponse, userId);
-
-            log.info("成功生成{}个推荐任务", taskDetails.size());
-            return Result.success(taskDetails);
+            if (!stream) {
+                // 不阻塞调用线程，超过截止时间时取消上游生成
+                Disposable subscription = bitGainChatClient.prompt()
+                        .user(userPrompt)
+                        .stream()
+                        .content()
+                        .collect(Collectors.joining())
+                        .timeout(deadline)
+                        .subscribe(
+                                aiResponse -> {
+                                    log.info("AI返回内容: {}", aiResponse);
+                                    List<Map<String, Object>> taskDetails;
+                                    try {
+                                        taskDetails = parseAIResponseAndSaveTasks(aiResponse, userId);
+                                    } catch (Exception e) {
+                                        log.warn("用户{}的AI推荐解析失败，改用规则推荐: {}", userId, e.getMessage());
+                                        generateRuleRecommendation(flight, context, e);
+                                        return;
+                                    }
+                                    if (taskDetails.isEmpty()) {
+                                        generateRuleRecommendation(flight, context, new RuntimeException("未识别到推荐任务"));
+                                        return;
+                                    }
+                                    recommendationCache.put(userId, fingerprint, aiResponse);
+                                    taskDetails.forEach(flight::publish);
+                                    flight.complete(taskDetails);
+                                },
+                                error -> {
+                                    log.warn("用户{}的AI推荐失败，改用规则推荐: {}", userId, error.getMessage());
+                                    generateRuleRecommendation(flight, context, error);
+                                }
+                        );
+                flight.bindUpstream(subscription);
+                return;
+            }
             
+            StreamingTaskParser parser = new StreamingTaskParser();
+            List<JsonObject> parsedTasks = new ArrayList<>();
+            List<Map<String, Object>> taskDetails = new ArrayList<>();
+            Disposable subscription = bitGainChatClient.prompt()
+                    .user(userPrompt)
+                    .stream()
+                    .content()
+                    .takeUntilOther(Mono.delay(deadline)
+                            .then(Mono.error(new TimeoutException("AI推荐超过" + deadline.toSeconds() + "秒未完成"))))
+                    .subscribe(
+                            fragment -> {
+                                List<JsonObject> closed = parser.feed(fragment);
+                                parsedTasks.addAll(closed);
+                                for (Map<String, Object> taskDetail : saveStreamedTasks(closed, userId)) {
+                                    taskDetails.add(taskDetail);
+                                    flight.publish(taskDetail);
+                                }
+                            },
+                            error -> {
+                                log.error("AI调用失败", error);
+                                if (taskDetails.isEmpty()) {
+                                    generateRuleRecommendation(flight, context, error);
+                                } else {
+                                    // 已推送的任务保留，不写入缓存
+                                    flight.complete(taskDetails);
+                                }
+                            },
+                            () -> {
+                                if (taskDetails.isEmpty()) {
+                                    log.error("解析AI响应失败: 未识别到推荐任务");
+                                    generateRuleRecommendation(flight, context, new RuntimeException("未识别到推荐任务"));
+                                    return;
+                                }
+                                recommendationCache.put(userId, fingerprint, toTasksJson(new Gson(), parsedTasks));
+                                // 发送完整任务列表给前端
+                                flight.complete(taskDetails);
+                                log.info("用户{}的AI任务推荐完成，生成{}个任务", userId, taskDetails.size());
+                            }
+                    );
+            flight.bindUpstream(subscription);
         } catch (Exception e) {
-            log.error("AI任务推荐失败", e);
-            return Result.error("AI任务推荐失败: " + e.getMessage());
+            log.error("AI任务推荐生成失败", e);
+            flight.fail((stream ? "系统错误：" : "") + e.getMessage(), e);
         }
     }
     
     /**
-     * 构建发送给AI的用户提示内容
+     * 用规则推荐引擎从活动库中为用户推荐活动并保存为待确认任务
+     *
+     * @param aiFailure AI推荐的失败原因，快速推荐模式下为null；规则推荐也没有结果时按该原因失败
      */
-    private String buildUserPrompt(User user, List<FixedTask> todayTasks, List<TodayGoal> todayGoals) {
-        StringBuilder prompt = new StringBuilder();
-        
-        // 用户基本信息
-        prompt.append("用户信息:\n");
-        prompt.append("职业: ").append(user.getProfession() != null ? user.getProfession() : "未设置").append("\n");
-        prompt.append("技能: ").append(user.getSkills() != null ? user.getSkills() : "未设置").append("\n");
-        prompt.append("目标: ").append(user.getGoals() != null ? user.getGoals() : "未设置").append("\n");
-        
-        // 今日目标
-        if (todayGoals != null && !todayGoals.isEmpty()) {
-            prompt.append("今日目标:\n");
-            for (TodayGoal goal : todayGoals) {
-                 prompt.append("- ").append(goal.getGoal()).append("\n");
-             }
+    private void generateRuleRecommendation(RecommendationSingleFlight.Flight flight, TodayContext context,
+                                            Throwable aiFailure) {
+        Long userId = context.user().getId();
+        try {
+            List<RecommendationRuleEngine.Recommendation> recommendations = recommendationRuleEngine.recommend(
+                    context.user(), context.goals(), context.freeSlots(), LocalDateTime.now());
+            if (recommendations.isEmpty()) {
+                Throwable cause = aiFailure != null ? aiFailure : new RuntimeException("没有适合当前空闲时间的推荐活动");
+                String message = aiFailure != null ? "错误：AI调用失败 - " + aiFailure.getMessage() : "暂无可推荐的活动";
+                flight.fail(message, cause);
+                return;
+            }
+            
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+            List<JsonObject> taskObjs = new ArrayList<>();
+            for (RecommendationRuleEngine.Recommendation recommendation : recommendations) {
+                JsonObject taskObj = new JsonObject();
+                taskObj.addProperty("title", recommendation.activity().getTitle());
+                taskObj.addProperty("description", recommendation.activity().getDescription());
+                taskObj.addProperty("startTime", recommendation.startTime().format(formatter));
+                taskObj.addProperty("endTime", recommendation.endTime().format(formatter));
+                taskObjs.add(taskObj);
+            }
+            List<Map<String, Object>> taskDetails = saveRecommendedTasks(taskObjs, userId);
+            taskDetails.forEach(flight::publish);
+            flight.complete(taskDetails);
+            log.info("用户{}的规则推荐完成，生成{}个任务{}", userId, taskDetails.size(), aiFailure != null ? "（AI推荐兜底）" : "");
+        } catch (Exception e) {
+            log.error("规则推荐失败", e);
+            flight.fail("系统错误：" + e.getMessage(), e);
         }
-        prompt.append("\n");
-        
-        // 今日日程
-        prompt.append("今日已安排的固定任务:\n");
-        if (todayTasks.isEmpty()) {
-            prompt.append("暂无固定任务安排\n");
-        } else {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-            for (FixedTask task : todayTasks) {
-                prompt.append("- ").append(task.getTitle())
-                      .append(" (").append(task.getStartTime().format(formatter))
-                      .append("-").append(task.getEndTime().format(formatter))
-                      .append(")\n");
+    }
+    
+    /**
+     * 查询用户今日固定任务和今日目标，并计算今日空闲时间段
+     */
+    private TodayContext loadTodayContext(User user) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime startOfDay = today.atStartOfDay();
+        LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
+        List<FixedTask> todayTasks = fixedTaskMapper.selectByUserIdAndTimeRange(user.getId(), startOfDay, endOfDay);
+        List<TodayGoal> todayGoals = todayGoalMapper.selectByUserIdAndTime(user.getId(), startOfDay, endOfDay);
+        return new TodayContext(user, todayTasks, todayGoals, freeTimeCalculator.calculate(todayTasks, today));
+    }
+    
+    /**
+     * 构建发送给AI的用户提示内容，系统提示由ChatClient统一发送
+     */
+    private String buildUserPrompt(TodayContext context) {
+        return recommendationPromptAssembler
+                .assemble(context.user(), context.tasks(), context.goals(), context.freeSlots())
+                .userPrompt();
+    }
+    
+    /**
+     * 一次推荐所需的用户今日数据
+     */
+    private record TodayContext(User user, List<FixedTask> tasks, List<TodayGoal> goals,
+                                List<FreeTimeSlotVO> freeSlots) {
+    }
+    
+    /**
+     * 将流式解析出的任务对象还原为 {"tasks":[...]} 格式
+     */
+    private String toTasksJson(Gson gson, List<JsonObject> taskObjs) {
+        JsonArray tasksArray = new JsonArray();
+        taskObjs.forEach(tasksArray::add);
+        JsonObject root = new JsonObject();
+        root.add("tasks", tasksArray);
+        return gson.toJson(root);
+    }
+    
+    /**
+     * 保存同一个流式片段中闭合的推荐任务
+     * 同一片段闭合的任务用一条多值INSERT保存；分散在不同片段中的任务各自保存，
+     * 以便每个任务闭合后立即带着ID推送给前端，不等待整个响应结束。格式错误的任务跳过。
+     *
+     * @return 保存成功的任务详情，保存失败时为空列表
+     */
+    private List<Map<String, Object>> saveStreamedTasks(List<JsonObject> closed, Long userId) {
+        List<FixedTask> tasks = new ArrayList<>();
+        List<JsonObject> taskObjs = new ArrayList<>();
+        for (JsonObject taskObj : closed) {
+            try {
+                tasks.add(buildRecommendedTask(taskObj, userId));
+                taskObjs.add(taskObj);
+            } catch (Exception e) {
+                log.error("跳过格式错误的推荐任务: {}", taskObj, e);
             }
         }
-        
-        prompt.append("\n请根据用户的职业、技能、目标、今日目标和今日日程，推荐3-5个适合的碎片时间提升任务。");
-        
-        return prompt.toString();
+        List<Map<String, Object>> taskDetails = new ArrayList<>();
+        if (tasks.isEmpty()) {
+            return taskDetails;
+        }
+        try {
+            fixedTaskMapper.insertBatch(tasks);
+        } catch (Exception e) {
+            log.error("保存推荐任务失败: {}", taskObjs, e);
+            return taskDetails;
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            taskDetails.add(buildTaskDetail(tasks.get(i), taskObjs.get(i)));
+            log.info("保存推荐任务: {} (ID: {})", tasks.get(i).getTitle(), tasks.get(i).getId());
+        }
+        return taskDetails;
     }
     
     /**
@@ -233,46 +420,11 @@ public class BitGainDesignServiceImpl implements BitGainDesignService {
             JsonObject jsonObject = JsonParser.parseString(aiResponse).getAsJsonObject();
             JsonArray tasksArray = jsonObject.getAsJsonArray("tasks");
             
+            List<JsonObject> taskObjs = new ArrayList<>();
             for (JsonElement taskElement : tasksArray) {
-                JsonObject taskObj = taskElement.getAsJsonObject();
-                
-                // 创建FixedTask对象
-                FixedTask task = new FixedTask();
-                task.setUserId(userId);
-                task.setTitle(taskObj.get("title").getAsString());
-                task.setDescription(taskObj.get("description").getAsString());
-                
-                // 解析时间
-                String startTimeStr = taskObj.get("startTime").getAsString();
-                String endTimeStr = taskObj.get("endTime").getAsString();
-                
-                LocalDate today = LocalDate.now();
-                DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
-                
-                task.setStartTime(LocalDateTime.of(today, 
-                    java.time.LocalTime.parse(startTimeStr, timeFormatter)));
-                task.setEndTime(LocalDateTime.of(today, 
-                    java.time.LocalTime.parse(endTimeStr, timeFormatter)));
-                
-                task.setStatus("0"); // 未完成
-                task.setDeleted(1); // 初始设为删除状态，等待用户确认
-                task.setCreateTime(LocalDateTime.now());
-                task.setUpdateTime(LocalDateTime.now());
-                
-                // 保存到数据库
-                fixedTaskMapper.insert(task);
-                
-                // 构建返回给前端的任务详情
-                Map<String, Object> taskDetail = new HashMap<>();
-                taskDetail.put("id", task.getId());
-                taskDetail.put("title", task.getTitle());
-                taskDetail.put("description", task.getDescription());
-                taskDetail.put("startTime", startTimeStr);
-                taskDetail.put("endTime", endTimeStr);
-                taskDetails.add(taskDetail);
-                
-                log.info("保存推荐任务: {} (ID: {})", task.getTitle(), task.getId());
+                taskObjs.add(taskElement.getAsJsonObject());
             }
+            taskDetails = saveRecommendedTasks(taskObjs, userId);
             
         } catch (Exception e) {
             log.error("解析AI返回JSON失败", e);
@@ -281,75 +433,277 @@ public class BitGainDesignServiceImpl implements BitGainDesignService {
         
         return taskDetails;
      }
+    
+    /**
+     * 把推荐的任务对象保存为待确认任务
+     */
+    private List<Map<String, Object>> saveRecommendedTasks(List<JsonObject> taskObjs, Long userId) {
+        List<Map<String, Object>> taskDetails = new ArrayList<>();
+        List<FixedTask> tasks = new ArrayList<>();
+        for (JsonObject taskObj : taskObjs) {
+            tasks.add(buildRecommendedTask(taskObj, userId));
+        }
+        if (tasks.isEmpty()) {
+            return taskDetails;
+        }
+        
+        // 一条多值INSERT保存本次推荐的全部任务
+        fixedTaskMapper.insertBatch(tasks);
+        
+        for (int i = 0; i < tasks.size(); i++) {
+            taskDetails.add(buildTaskDetail(tasks.get(i), taskObjs.get(i)));
+            log.info("保存推荐任务: {} (ID: {})", tasks.get(i).getTitle(), tasks.get(i).getId());
+        }
+        return taskDetails;
+    }
+    
+    /**
+     * 根据AI返回的任务对象构建待确认的固定任务
+     */
+    private FixedTask buildRecommendedTask(JsonObject taskObj, Long userId) {
+        // 创建FixedTask对象
+        FixedTask task = new FixedTask();
+        task.setUserId(userId);
+        task.setTitle(taskObj.get("title").getAsString());
+        task.setDescription(taskObj.get("description").getAsString());
+        
+        // 解析时间
+        LocalDate today = LocalDate.now();
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+        task.setStartTime(LocalDateTime.of(today, 
+            java.time.LocalTime.parse(taskObj.get("startTime").getAsString(), timeFormatter)));
+        task.setEndTime(LocalDateTime.of(today, 
+            java.time.LocalTime.parse(taskObj.get("endTime").getAsString(), timeFormatter)));
+        
+        task.setStatus("0"); // 未完成
+        task.setDeleted(1); // 初始设为删除状态，等待用户确认
+        task.setCreateTime(LocalDateTime.now());
+        task.setUpdateTime(LocalDateTime.now());
+        return task;
+    }
+    
+    /**
+     * 构建返回给前端的任务详情
+     */
+    private Map<String, Object> buildTaskDetail(FixedTask task, JsonObject taskObj) {
+        Map<String, Object> taskDetail = new HashMap<>();
+        taskDetail.put("id", task.getId());
+        taskDetail.put("title", task.getTitle());
+        taskDetail.put("description", task.getDescription());
+        taskDetail.put("startTime", taskObj.get("startTime").getAsString());
+        taskDetail.put("endTime", taskObj.get("endTime").getAsString());
+        return taskDetail;
+    }
      
-     @Override
-     public Result<String> confirmRecommendedTasks(List<TaskActionDTO> taskActions) {
-         try {
-             // 获取当前用户ID
-             Long userId = BaseContext.getCurrentId();
-             if (userId == null) {
-                 return Result.error("用户未登录");
-             }
-             
-             if (taskActions == null || taskActions.isEmpty()) {
-                 return Result.error("请选择要操作的任务");
-             }
-             
-             log.info("用户{}操作推荐任务，任务数量: {}", userId, taskActions.size());
-             
-             int commitCount = 0;
-             int rejectCount = 0;
-             System.out.println("taskActions:"+taskActions);
-             for (TaskActionDTO taskAction : taskActions) {
-                 Long taskId = taskAction.getTaskId();
-                 String action = taskAction.getAction();
-                 
-                 // 查询任务是否存在且属于当前用户（需要查询deleted=1的记录）
-                 FixedTask task = fixedTaskMapper.selectByIdIncludeDeleted(taskId, userId);
-                 if (task != null && task.getDeleted() == 1) {
-                     if ("commit".equals(action)) {
-                         // 启用任务：将deleted状态改为0
-                         FixedTask updateTask = new FixedTask();
-                         updateTask.setId(taskId);
-                         updateTask.setUserId(userId);
-                         updateTask.setDeleted(0);
-                         updateTask.setUpdateTime(LocalDateTime.now());
-                         updateTask.setStatus("pending");
-                         fixedTaskMapper.updateDeleted(updateTask);
-                         commitCount++;
-                         log.info("启用任务成功: {} (ID: {})", task.getTitle(), taskId);
-                     } else if ("reject".equals(action)) {
-                         // 拒绝任务：直接删除记录
-                         fixedTaskMapper.deleteById(taskId, userId, LocalDateTime.now());
-                         rejectCount++;
-                         log.info("删除任务成功: {} (ID: {})", task.getTitle(), taskId);
-                     }
-                 } else {
-                     log.warn("任务不存在或已处理: {}", taskId);
-                 }
-             }
-             
-             StringBuilder resultMsg = new StringBuilder();
-             if (commitCount > 0) {
-                 resultMsg.append("成功启用").append(commitCount).append("个任务");
-             }
-             if (rejectCount > 0) {
-                 if (!resultMsg.isEmpty()) {
-                     resultMsg.append("，");
-                 }
-                 resultMsg.append("成功删除").append(rejectCount).append("个任务");
-             }
-             
-             if (commitCount > 0 || rejectCount > 0) {
-                 log.info("任务操作完成 - 启用: {}个，删除: {}个", commitCount, rejectCount);
-                 return Result.success(resultMsg.toString());
-             } else {
-                 return Result.error("没有可操作的任务");
-             }
-             
-         } catch (Exception e) {
-             log.error("操作推荐任务失败", e);
-             return Result.error("操作任务失败: " + e.getMessage());
-         }
-     }
+    @Override
+    @Transactional
+    public Result<String> confirmRecommendedTasks(List<TaskActionDTO> taskActions) {
+        try {
+            // 获取当前用户ID
+            Long userId = BaseContext.getCurrentId();
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+            
+            if (taskActions == null || taskActions.isEmpty()) {
+                return Result.error("请选择要操作的任务");
+            }
+            
+            log.info("用户{}操作推荐任务，任务数量: {}", userId, taskActions.size());
+            
+            List<TaskActionResultVO> results = applyTaskActions(userId, taskActions);
+            recommendationCache.invalidate(userId);
+            long commitCount = countOutcome(results, TaskActionResultVO.COMMITTED);
+            long rejectCount = countOutcome(results, TaskActionResultVO.REJECTED);
+            long conflictCount = countOutcome(results, TaskActionResultVO.CONFLICT);
+            
+            StringBuilder resultMsg = new StringBuilder();
+            if (commitCount > 0) {
+                resultMsg.append("成功启用").append(commitCount).append("个任务");
+            }
+            if (rejectCount > 0) {
+                if (!resultMsg.isEmpty()) {
+                    resultMsg.append("，");
+                }
+                resultMsg.append("成功删除").append(rejectCount).append("个任务");
+            }
+            if (conflictCount > 0) {
+                if (!resultMsg.isEmpty()) {
+                    resultMsg.append("，");
+                }
+                resultMsg.append(conflictCount).append("个任务与已有日程冲突未启用");
+            }
+            
+            if (commitCount > 0 || rejectCount > 0 || conflictCount > 0) {
+                log.info("任务操作完成 - 启用: {}个，删除: {}个", commitCount, rejectCount);
+                return Result.success(resultMsg.toString());
+            } else {
+                return Result.error("没有可操作的任务");
+            }
+            
+        } catch (Exception e) {
+            log.error("操作推荐任务失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Result.error("操作任务失败: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    @Transactional
+    public Result<List<TaskActionResultVO>> batchConfirmRecommendedTasks(List<TaskActionDTO> taskActions) {
+        try {
+            Long userId = BaseContext.getCurrentId();
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+            
+            if (taskActions == null || taskActions.isEmpty()) {
+                return Result.error("请选择要操作的任务");
+            }
+            
+            log.info("用户{}批量操作推荐任务，任务数量: {}", userId, taskActions.size());
+            List<TaskActionResultVO> results = applyTaskActions(userId, taskActions);
+            recommendationCache.invalidate(userId);
+            return Result.success(results);
+            
+        } catch (Exception e) {
+            log.error("批量操作推荐任务失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Result.error("操作任务失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 集合方式处理推荐任务操作：一次查询 + 一次批量启用 + 一次批量删除，返回每个任务的处理结果。
+     * 启用前按与手动创建相同的规则校验时间冲突，整批只取一次重叠的有效任务，冲突的任务保持待确认状态。
+     */
+    private List<TaskActionResultVO> applyTaskActions(Long userId, List<TaskActionDTO> taskActions) {
+        // 同一任务只处理第一次出现的操作
+        Map<Long, TaskActionDTO> actionById = new LinkedHashMap<>();
+        for (TaskActionDTO taskAction : taskActions) {
+            if (taskAction.getTaskId() != null) {
+                actionById.putIfAbsent(taskAction.getTaskId(), taskAction);
+            }
+        }
+        
+        // 查询任务是否存在且属于当前用户（需要查询deleted=1的记录）
+        Map<Long, FixedTask> drafts = new HashMap<>();
+        if (!actionById.isEmpty()) {
+            for (FixedTask task : fixedTaskMapper.selectByIdsIncludeDeleted(actionById.keySet(), userId)) {
+                if (task.getDeleted() == 1) {
+                    drafts.put(task.getId(), task);
+                }
+            }
+        }
+        
+        // 一次取出与整批待启用任务时间跨度重叠的有效任务，逐个任务的冲突判断在内存中完成
+        List<FixedTask> activeTasks = loadActiveTasksOverlapping(userId, actionById.values(), drafts);
+        List<FixedTask> committedDrafts = new ArrayList<>();
+        List<Long> commitIds = new ArrayList<>();
+        List<Long> rejectIds = new ArrayList<>();
+        List<TaskActionResultVO> results = new ArrayList<>(taskActions.size());
+        for (TaskActionDTO taskAction : taskActions) {
+            Long taskId = taskAction.getTaskId();
+            String action = taskAction.getAction();
+            String outcome;
+            List<Long> conflictTaskIds = null;
+            if (taskId == null || actionById.get(taskId) != taskAction
+                    || !("commit".equals(action) || "reject".equals(action))) {
+                outcome = TaskActionResultVO.SKIPPED;
+            } else if (!drafts.containsKey(taskId)) {
+                log.warn("任务不存在或已处理: {}", taskId);
+                outcome = TaskActionResultVO.NOT_FOUND;
+            } else if ("commit".equals(action)) {
+                FixedTask draft = drafts.get(taskId);
+                conflictTaskIds = findCommitConflicts(draft, activeTasks, committedDrafts);
+                if (conflictTaskIds.isEmpty()) {
+                    committedDrafts.add(draft);
+                    commitIds.add(taskId);
+                    outcome = TaskActionResultVO.COMMITTED;
+                    conflictTaskIds = null;
+                } else {
+                    log.warn("任务{}与已有任务{}时间冲突，未启用", taskId, conflictTaskIds);
+                    outcome = TaskActionResultVO.CONFLICT;
+                }
+            } else {
+                rejectIds.add(taskId);
+                outcome = TaskActionResultVO.REJECTED;
+            }
+            results.add(TaskActionResultVO.builder()
+                    .taskId(taskId)
+                    .action(action)
+                    .outcome(outcome)
+                    .conflictTaskIds(conflictTaskIds)
+                    .build());
+        }
+        
+        // 影响行数少于预期说明查询之后有任务被并发处理，抛出异常由调用方回滚整批操作
+        if (!commitIds.isEmpty()) {
+            // 启用任务：将deleted状态改为0
+            int committed = fixedTaskMapper.commitDraftsByIds(commitIds, userId, LocalDateTime.now());
+            if (committed != commitIds.size()) {
+                throw new IllegalStateException("部分任务已被处理，请刷新后重试（预期启用" + commitIds.size()
+                        + "个，实际" + committed + "个）");
+            }
+            timeConflictValidator.onTasksChanged(userId);
+            log.info("启用任务成功: {}", commitIds);
+        }
+        if (!rejectIds.isEmpty()) {
+            // 拒绝任务：直接删除记录
+            int deleted = fixedTaskMapper.deleteDraftsByIds(rejectIds, userId);
+            if (deleted != rejectIds.size()) {
+                throw new IllegalStateException("部分任务已被处理，请刷新后重试（预期删除" + rejectIds.size()
+                        + "个，实际" + deleted + "个）");
+            }
+            log.info("删除任务成功: {}", rejectIds);
+        }
+        return results;
+    }
+    
+    /**
+     * 查询与本批所有待启用任务的整体时间跨度（最早开始到最晚结束）重叠的有效任务
+     */
+    private List<FixedTask> loadActiveTasksOverlapping(Long userId, Collection<TaskActionDTO> actions,
+                                                       Map<Long, FixedTask> drafts) {
+        LocalDateTime minStart = null;
+        LocalDateTime maxEnd = null;
+        for (TaskActionDTO action : actions) {
+            FixedTask draft = drafts.get(action.getTaskId());
+            if (!"commit".equals(action.getAction()) || draft == null) {
+                continue;
+            }
+            if (minStart == null || draft.getStartTime().isBefore(minStart)) {
+                minStart = draft.getStartTime();
+            }
+            if (maxEnd == null || draft.getEndTime().isAfter(maxEnd)) {
+                maxEnd = draft.getEndTime();
+            }
+        }
+        if (minStart == null) {
+            return List.of();
+        }
+        return timeConflictValidator.findConflicts(userId, minStart, maxEnd, null);
+    }
+    
+    /**
+     * 判断待启用任务与已有固定任务及同批已启用任务的时间冲突
+     */
+    private List<Long> findCommitConflicts(FixedTask draft, List<FixedTask> activeTasks, List<FixedTask> committedDrafts) {
+        List<Long> conflictIds = new ArrayList<>();
+        for (FixedTask task : activeTasks) {
+            if (TimeConflictValidator.overlaps(task, draft.getStartTime(), draft.getEndTime())) {
+                conflictIds.add(task.getId());
+            }
+        }
+        for (FixedTask committed : committedDrafts) {
+            if (TimeConflictValidator.overlaps(committed, draft.getStartTime(), draft.getEndTime())) {
+                conflictIds.add(committed.getId());
+            }
+        }
+        return conflictIds;
+    }
+    
+    private long countOutcome(List<TaskActionResultVO> results, String outcome) {
+        return results.stream().filter(result -> outcome.equals(result.getOutcome())).count();
+    }
 }
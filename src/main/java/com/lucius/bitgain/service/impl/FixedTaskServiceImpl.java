@@ -5,15 +5,22 @@ import com.lucius.bitgain.dto.FixedTaskCreateDTO;
 import com.lucius.bitgain.dto.FixedTaskUpdateDTO;
 import com.lucius.bitgain.entity.FixedTask;
 import com.lucius.bitgain.mapper.FixedTaskMapper;
+import com.lucius.bitgain.properties.PageProperties;
 import com.lucius.bitgain.service.FixedTaskService;
+import com.lucius.bitgain.utils.FreeTimeCalculator;
+import com.lucius.bitgain.utils.RecommendationCache;
 import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.utils.TimeConflictValidator;
 
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.FixedTaskVO;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,6 +34,10 @@ import java.util.stream.Collectors;
 public class FixedTaskServiceImpl implements FixedTaskService {
 
     private final FixedTaskMapper fixedTaskMapper;
+    private final RecommendationCache recommendationCache;
+    private final FreeTimeCalculator freeTimeCalculator;
+    private final TimeConflictValidator timeConflictValidator;
+    private final PageProperties pageProperties;
 
     @Override
     @Transactional
@@ -34,14 +45,15 @@ public class FixedTaskServiceImpl implements FixedTaskService {
         Long userId = BaseContext.getCurrentId();
         
         // 检查时间冲突
-        int conflictCount = fixedTaskMapper.checkTimeConflictForCreate(
+        List<FixedTask> conflicts = timeConflictValidator.findConflicts(
                 userId, 
                 fixedTaskCreateDTO.getStartTime(), 
-                fixedTaskCreateDTO.getEndTime()
+                fixedTaskCreateDTO.getEndTime(),
+                null
         );
         
-        if (conflictCount > 0) {
-            return Result.error("该时间段已有其他固定任务，请选择其他时间");
+        if (!conflicts.isEmpty()) {
+            return Result.error("该时间段与已有固定任务冲突：" + TimeConflictValidator.describe(conflicts) + "，请选择其他时间");
         }
         
         // 创建固定任务
@@ -58,6 +70,8 @@ public class FixedTaskServiceImpl implements FixedTaskService {
                 .build();
         
         fixedTaskMapper.insert(fixedTask);
+        timeConflictValidator.onTasksChanged(userId);
+        recommendationCache.invalidate(userId);
         
         FixedTaskVO fixedTaskVO = convertToVO(fixedTask);
         
@@ -77,6 +91,8 @@ public class FixedTaskServiceImpl implements FixedTaskService {
         }
         
         fixedTaskMapper.deleteById(id, userId, LocalDateTime.now());
+        timeConflictValidator.onTasksChanged(userId);
+        recommendationCache.invalidate(userId);
         
         log.info("用户{}删除固定任务成功，任务ID：{}", userId, id);
         return Result.success();
@@ -94,15 +110,15 @@ public class FixedTaskServiceImpl implements FixedTaskService {
         }
         
         // 检查时间冲突（排除当前任务）
-        int conflictCount = fixedTaskMapper.checkTimeConflictForUpdate(
+        List<FixedTask> conflicts = timeConflictValidator.findConflicts(
                 userId, 
                 fixedTaskUpdateDTO.getStartTime(), 
                 fixedTaskUpdateDTO.getEndTime(), 
                 fixedTaskUpdateDTO.getId()
         );
         
-        if (conflictCount > 0) {
-            return Result.error("该时间段已有其他固定任务，请选择其他时间");
+        if (!conflicts.isEmpty()) {
+            return Result.error("该时间段与已有固定任务冲突：" + TimeConflictValidator.describe(conflicts) + "，请选择其他时间");
         }
         
         // 更新固定任务
@@ -118,6 +134,8 @@ public class FixedTaskServiceImpl implements FixedTaskService {
                 .build();
         
         fixedTaskMapper.update(fixedTask);
+        timeConflictValidator.onTasksChanged(userId);
+        recommendationCache.invalidate(userId);
         
         // 查询更新后的任务
         FixedTask updatedTask = fixedTaskMapper.selectById(fixedTaskUpdateDTO.getId(), userId);
@@ -152,6 +170,29 @@ public class FixedTaskServiceImpl implements FixedTaskService {
         return Result.success(fixedTaskVOs);
     }
 
+    @Override
+    public Result<CursorPageVO<FixedTaskVO>> getMyFixedTasksPage(LocalDateTime cursorTime, Long cursorId, Integer size,
+                                                                 LocalDate startDate, LocalDate endDate) {
+        Long userId = BaseContext.getCurrentId();
+        
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return Result.error("开始日期不能晚于结束日期");
+        }
+        
+        int pageSize = pageProperties.resolveSize(size);
+        List<FixedTask> fixedTasks = fixedTaskMapper.selectPageByUserId(
+                userId,
+                cursorTime,
+                cursorId,
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.plusDays(1).atStartOfDay() : null,
+                pageSize + 1
+        );
+        
+        return Result.success(CursorPageVO.of(fixedTasks, pageSize,
+                FixedTask::getStartTime, FixedTask::getId, this::convertToVO));
+    }
+
     @Override
     public Result<List<FixedTaskVO>> getFixedTasksByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
         Long userId = BaseContext.getCurrentId();
@@ -168,6 +209,18 @@ public class FixedTaskServiceImpl implements FixedTaskService {
         return Result.success(fixedTaskVOs);
     }
 
+    @Override
+    public Result<List<FreeTimeSlotVO>> getFreeTimeSlots(LocalDate date) {
+        Long userId = BaseContext.getCurrentId();
+        
+        List<FixedTask> fixedTasks = fixedTaskMapper.selectByUserIdAndTimeRange(
+                userId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        List<FreeTimeSlotVO> freeSlots = freeTimeCalculator.calculate(fixedTasks, date);
+        
+        log.info("用户{}查询{}的空闲时间，共{}个时间段", userId, date, freeSlots.size());
+        return Result.success(freeSlots);
+    }
+
     /**
      * 将FixedTask实体转换为FixedTaskVO
      * @param fixedTask 固定任务实体
@@ -0,0 +1,80 @@
+package com.lucius.bitgain.service.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.lucius.bitgain.context.BaseContext;
+import com.lucius.bitgain.entity.Report;
+import com.lucius.bitgain.mapper.ReportMapper;
+import com.lucius.bitgain.properties.PageProperties;
+import com.lucius.bitgain.service.ReportService;
+import com.lucius.bitgain.utils.Result;
+import com.lucius.bitgain.vo.CursorPageVO;
+import com.lucius.bitgain.vo.ReportStatisticsVO;
+import com.lucius.bitgain.vo.ReportVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 报告查询业务逻辑实现类
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportServiceImpl implements ReportService {
+
+    private static final Gson GSON = new Gson();
+
+    private final ReportMapper reportMapper;
+    private final PageProperties pageProperties;
+
+    @Override
+    public Result<CursorPageVO<ReportVO>> getMyReports(String reportType, LocalDateTime cursorTime, Long cursorId, Integer size) {
+        Long userId = BaseContext.getCurrentId();
+        
+        int pageSize = pageProperties.resolveSize(size);
+        List<Report> reports = reportMapper.selectPageByUserId(
+                userId,
+                reportType != null && !reportType.isBlank() ? reportType : null,
+                cursorTime != null ? cursorTime.toLocalDate() : null,
+                cursorId,
+                pageSize + 1
+        );
+        
+        return Result.success(CursorPageVO.of(reports, pageSize,
+                report -> report.getReportDate().atStartOfDay(), Report::getId, report -> convertToVO(report, false)));
+    }
+
+    @Override
+    public Result<ReportVO> getMyReportById(Long id) {
+        Long userId = BaseContext.getCurrentId();
+        
+        Report report = reportMapper.selectByIdAndUserId(id, userId);
+        if (report == null) {
+            return Result.error("报告不存在或无权限查看");
+        }
+        
+        return Result.success(convertToVO(report, true));
+    }
+
+    private ReportVO convertToVO(Report report, boolean withContent) {
+        String html = null;
+        if (withContent && report.getContent() != null) {
+            html = JsonParser.parseString(report.getContent()).getAsJsonObject().get("html").getAsString();
+        }
+        return ReportVO.builder()
+                .id(report.getId())
+                .reportType(report.getReportType())
+                .reportDate(report.getReportDate())
+                .title(report.getTitle())
+                .content(html)
+                .statistics(report.getStatistics() != null
+                        ? GSON.fromJson(report.getStatistics(), ReportStatisticsVO.class) : null)
+                .emailSent(report.getEmailSent() != null && report.getEmailSent() == 1)
+                .createTime(report.getCreateTime())
+                .build();
+    }
+}
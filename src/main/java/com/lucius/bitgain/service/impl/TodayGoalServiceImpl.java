@@ -4,13 +4,17 @@ import com.lucius.bitgain.context.BaseContext;
 import com.lucius.bitgain.dto.TodayGoalDTO;
 import com.lucius.bitgain.entity.TodayGoal;
 import com.lucius.bitgain.mapper.TodayGoalMapper;
+import com.lucius.bitgain.properties.PageProperties;
 import com.lucius.bitgain.service.TodayGoalService;
+import com.lucius.bitgain.utils.RecommendationCache;
+import com.lucius.bitgain.vo.CursorPageVO;
 import com.lucius.bitgain.vo.TodayGoalVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,6 +28,8 @@ import java.util.stream.Collectors;
 public class TodayGoalServiceImpl implements TodayGoalService {
 
     private final TodayGoalMapper todayGoalMapper;
+    private final RecommendationCache recommendationCache;
+    private final PageProperties pageProperties;
 
     /**
      * 创建今日目标
@@ -49,6 +55,7 @@ public class TodayGoalServiceImpl implements TodayGoalService {
         if (result <= 0) {
             throw new RuntimeException("创建今日目标失败");
         }
+        recommendationCache.invalidate(userId);
         
         log.info("今日目标创建成功，目标ID: {}", todayGoal.getId());
         return convertToVO(todayGoal);
@@ -76,6 +83,7 @@ public class TodayGoalServiceImpl implements TodayGoalService {
         if (result <= 0) {
             throw new RuntimeException("删除今日目标失败");
         }
+        recommendationCache.invalidate(userId);
         
         log.info("今日目标删除成功，目标ID: {}", id);
     }
@@ -110,6 +118,7 @@ public class TodayGoalServiceImpl implements TodayGoalService {
         if (result <= 0) {
             throw new RuntimeException("更新今日目标失败");
         }
+        recommendationCache.invalidate(userId);
         
         // 重新查询更新后的数据
         TodayGoal updatedGoal = todayGoalMapper.selectById(id);
@@ -155,6 +164,39 @@ public class TodayGoalServiceImpl implements TodayGoalService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 按创建时间游标分页查询当前用户的今日目标
+     *
+     * @param cursorTime 上一页返回的nextCursorTime
+     * @param cursorId   上一页返回的nextCursorId
+     * @param size       每页条数
+     * @param startDate  开始日期（包含）
+     * @param endDate    结束日期（包含）
+     * @return 分页结果
+     */
+    @Override
+    public CursorPageVO<TodayGoalVO> getMyTodayGoalsPage(LocalDateTime cursorTime, Long cursorId, Integer size,
+                                                         LocalDate startDate, LocalDate endDate) {
+        Long userId = BaseContext.getCurrentId();
+        log.info("分页查询今日目标，用户ID: {}, 游标: {}/{}", userId, cursorTime, cursorId);
+        
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new RuntimeException("开始日期不能晚于结束日期");
+        }
+        
+        int pageSize = pageProperties.resolveSize(size);
+        List<TodayGoal> todayGoals = todayGoalMapper.selectPageByUserId(
+                userId,
+                cursorTime,
+                cursorId,
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.plusDays(1).atStartOfDay() : null,
+                pageSize + 1
+        );
+        
+        return CursorPageVO.of(todayGoals, pageSize, TodayGoal::getCreateTime, TodayGoal::getId, this::convertToVO);
+    }
+
     /**
      * 删除当前用户的所有今日目标
      */
@@ -168,6 +210,7 @@ public class TodayGoalServiceImpl implements TodayGoalService {
         if (result < 0) {
             throw new RuntimeException("删除用户所有今日目标失败");
         }
+        recommendationCache.invalidate(userId);
         
         log.info("用户所有今日目标删除成功，删除数量: {}", result);
     }
@@ -9,6 +9,9 @@ import com.lucius.bitgain.mapper.UserMapper;
 import com.lucius.bitgain.properties.JwtProperties;
 import com.lucius.bitgain.service.UserService;
 import com.lucius.bitgain.utils.JwtUtil;
+import com.lucius.bitgain.utils.RecommendationCache;
+import com.lucius.bitgain.utils.DeliverySlot;
+import com.lucius.bitgain.utils.ReportTimingWheel;
 import com.lucius.bitgain.utils.Result;
 import com.lucius.bitgain.vo.UserLoginVO;
 import com.lucius.bitgain.vo.UserInfoVO;
@@ -34,6 +37,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private ReportTimingWheel reportTimingWheel;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Override
@@ -152,6 +161,8 @@ public class UserServiceImpl implements UserService {
         userInfoVO.setSkills(user.getSkills());
         userInfoVO.setGoals(user.getGoals());
         userInfoVO.setEmailSubscribe(user.getEmailSubscribe());
+        userInfoVO.setTimezone(user.getTimezone());
+        userInfoVO.setDeliveryHour(user.getDeliveryHour());
 
         log.info("获取用户信息成功，用户名：{}", user.getUsername());
         return Result.success(userInfoVO);
@@ -179,6 +190,11 @@ public class UserServiceImpl implements UserService {
             return Result.error("手机号已存在");
         }
 
+        // 检查时区是否有效
+        if (userUpdateDTO.getTimezone() != null && !DeliverySlot.isValidTimezone(userUpdateDTO.getTimezone())) {
+            return Result.error("时区格式不正确");
+        }
+
         // 构建更新对象
         User user = new User();
         user.setId(userId);
@@ -189,11 +205,19 @@ public class UserServiceImpl implements UserService {
         user.setSkills(userUpdateDTO.getSkills());
         user.setGoals(userUpdateDTO.getGoals());
         user.setEmailSubscribe(userUpdateDTO.getEmailSubscribe());
+        user.setTimezone(userUpdateDTO.getTimezone());
+        user.setDeliveryHour(userUpdateDTO.getDeliveryHour());
         user.setUpdateTime(LocalDateTime.now());
 
         // 执行更新
         int result = userMapper.updateUser(user);
         if (result > 0) {
+            recommendationCache.invalidate(userId);
+            if (user.getTimezone() != null || user.getDeliveryHour() != null) {
+                // 新的投递时段立即加入本节点的时间轮，其他节点在下次刷新时加入
+                User updated = userMapper.getUserById(userId);
+                reportTimingWheel.register(DeliverySlot.of(updated));
+            }
             log.info("更新用户信息成功，用户ID：{}", userId);
             return Result.success("更新成功");
         } else {
@@ -0,0 +1,263 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ChatClient调用保护
+ * 作为最外层Advisor挂在ChatClient上，对每次call和stream调用依次执行：
+ * 熔断器判断（AI服务持续出错或变慢时直接失败，不再占用线程等待）、并发隔离（每个ChatClient独立的并发上限，
+ * 超出直接拒绝，不让AI调用耗尽Tomcat请求线程）、单次调用截止时间（call在独立线程上执行并限时等待，
+ * stream超时后取消上游流）。调用结果、耗时、熔断器状态和并发数通过指标暴露。
+ */
+@Slf4j
+public class AiCallGuard implements CallAdvisor, StreamAdvisor, DisposableBean {
+
+    private static final String CIRCUIT_OPEN_MESSAGE = "AI服务暂时不可用，请稍后再试";
+    private static final String BULKHEAD_FULL_MESSAGE = "AI调用并发已满，请稍后再试";
+
+    /**
+     * 调用结果，用作指标的outcome标签
+     */
+    private enum Outcome {
+        SUCCESS("success"), SLOW("slow"), ERROR("error"), TIMEOUT("timeout"), CANCELLED("cancelled"),
+        SHORT_CIRCUITED("short_circuited"), BULKHEAD_FULL("bulkhead_full");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final String client;
+    private final Duration deadline;
+    private final long slowCallNanos;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final ThreadPoolExecutor callExecutor;
+    private final AiCircuitBreaker circuitBreaker;
+    private final Map<Outcome, Counter> calls = new EnumMap<>(Outcome.class);
+    private final Timer latency;
+
+    /**
+     * @param client        ChatClient名称，用作指标的client标签
+     * @param config        保护配置
+     * @param meterRegistry 指标注册表
+     */
+    public AiCallGuard(String client, AiProperties.Resilience config, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.deadline = config.getDeadline();
+        this.slowCallNanos = config.getSlowCallThreshold().toNanos();
+        this.maxConcurrent = config.getMaxConcurrent();
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.callExecutor = new ThreadPoolExecutor(
+                maxConcurrent,
+                maxConcurrent,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("ai-call-" + client + "-"));
+        this.callExecutor.allowCoreThreadTimeOut(true);
+        this.circuitBreaker = new AiCircuitBreaker(client, config.getSlidingWindowSize(), config.getMinimumCalls(),
+                config.getFailureRateThreshold(), config.getOpenDuration(), config.getHalfOpenCalls(), System::nanoTime);
+
+        Gauge.builder("bitgain.ai.client.state", circuitBreaker, breaker -> breaker.getState().getCode())
+                .description("AI熔断器状态：0-关闭，1-打开，2-半开")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("bitgain.ai.client.concurrent", bulkhead, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("进行中的AI调用数")
+                .tag("client", client)
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            calls.put(outcome, Counter.builder("bitgain.ai.client.calls")
+                    .description("AI调用数")
+                    .tag("client", client)
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+        }
+        this.latency = Timer.builder("bitgain.ai.client.latency")
+                .description("AI调用耗时")
+                .tag("client", client)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        AiCircuitBreaker.Permit permit = admit();
+        long startNanos = System.nanoTime();
+        Future<ChatClientResponse> future;
+        try {
+            future = callExecutor.submit(() -> {
+                try {
+                    return chain.nextCall(request);
+                } finally {
+                    // 调用线程真正结束后才归还并发名额，超时后仍未返回的调用继续占用
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            permit.release();
+            throw e;
+        }
+
+        try {
+            ChatClientResponse response = future.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            finish(permit, startNanos, Outcome.SUCCESS);
+            return response;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            finish(permit, startNanos, Outcome.TIMEOUT);
+            throw new RuntimeException(timeoutMessage(), e);
+        } catch (ExecutionException e) {
+            finish(permit, startNanos, Outcome.ERROR);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            finish(permit, startNanos, Outcome.CANCELLED);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI调用被中断", e);
+        }
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        return Flux.defer(() -> {
+            AiCircuitBreaker.Permit permit = admit();
+            long startNanos = System.nanoTime();
+            // 在结束信号传给下游之前归还并发名额，doFinally兜底只归还一次
+            AtomicBoolean released = new AtomicBoolean(false);
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.release();
+                }
+            };
+            return Flux.defer(() -> chain.nextStream(request))
+                    .takeUntilOther(Mono.delay(deadline).then(Mono.error(new TimeoutException(timeoutMessage()))))
+                    .doOnComplete(() -> {
+                        release.run();
+                        finish(permit, startNanos, Outcome.SUCCESS);
+                    })
+                    .doOnError(e -> {
+                        release.run();
+                        finish(permit, startNanos, e instanceof TimeoutException ? Outcome.TIMEOUT : Outcome.ERROR);
+                    })
+                    .doOnCancel(() -> {
+                        release.run();
+                        finish(permit, startNanos, Outcome.CANCELLED);
+                    })
+                    .doFinally(signal -> release.run());
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "AiCallGuard-" + client;
+    }
+
+    @Override
+    public int getOrder() {
+        // 最外层执行，其余Advisor的耗时也计入截止时间
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * 熔断器状态
+     *
+     * @return 熔断器状态
+     */
+    public AiCircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * 进行中的调用数
+     *
+     * @return 调用数
+     */
+    public int getConcurrentCalls() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    @Override
+    public void destroy() {
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * 依次通过熔断器和并发隔离，任一拒绝时抛出RejectedExecutionException
+     */
+    private AiCircuitBreaker.Permit admit() {
+        AiCircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == null) {
+            calls.get(Outcome.SHORT_CIRCUITED).increment();
+            throw new RejectedExecutionException(CIRCUIT_OPEN_MESSAGE);
+        }
+        if (!bulkhead.tryAcquire()) {
+            permit.release();
+            calls.get(Outcome.BULKHEAD_FULL).increment();
+            log.warn("AI调用{}并发已达上限{}，拒绝本次调用", client, maxConcurrent);
+            throw new RejectedExecutionException(BULKHEAD_FULL_MESSAGE);
+        }
+        return permit;
+    }
+
+    /**
+     * 记录调用结果：成功但超过慢调用阈值按慢调用失败计；调用方提前取消的调用，
+     * 已经超过慢调用阈值的同样按慢调用计，否则不计入熔断统计
+     */
+    private void finish(AiCircuitBreaker.Permit permit, long startNanos, Outcome outcome) {
+        long elapsed = System.nanoTime() - startNanos;
+        if ((outcome == Outcome.SUCCESS || outcome == Outcome.CANCELLED) && elapsed >= slowCallNanos) {
+            outcome = Outcome.SLOW;
+        }
+        calls.get(outcome).increment();
+        if (outcome == Outcome.CANCELLED) {
+            permit.release();
+            return;
+        }
+        latency.record(elapsed, TimeUnit.NANOSECONDS);
+        if (outcome == Outcome.SUCCESS) {
+            permit.onSuccess();
+        } else {
+            permit.onFailure();
+        }
+    }
+
+    private String timeoutMessage() {
+        return "AI调用超过" + deadline.toSeconds() + "秒未完成";
+    }
+}
@@ -0,0 +1,203 @@
+package com.lucius.bitgain.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * AI调用熔断器
+ * 按最近slidingWindowSize次调用的结果统计失败率（出错、超时和慢调用都算失败），
+ * 至少有minimumCalls次调用且失败率达到阈值时打开，打开期间的调用直接拒绝；
+ * 打开openDuration后进入半开状态，放行halfOpenCalls次试探调用，全部成功则关闭，任一失败则重新打开。
+ */
+@Slf4j
+public class AiCircuitBreaker {
+
+    /**
+     * 熔断器状态，code用于指标上报
+     */
+    public enum State {
+        CLOSED(0), OPEN(1), HALF_OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param name                 熔断器名称，用于日志
+     * @param slidingWindowSize    统计失败率的最近调用数
+     * @param minimumCalls         计算失败率所需的最少调用数
+     * @param failureRateThreshold 打开熔断的失败率（百分比）
+     * @param openDuration         打开后进入半开状态前的等待时间
+     * @param halfOpenCalls        半开状态放行的试探调用数
+     * @param nanoClock            纳秒时钟
+     */
+    public AiCircuitBreaker(String name, int slidingWindowSize, int minimumCalls, int failureRateThreshold,
+                            Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        this.name = name;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 申请一次调用许可
+     *
+     * @return 许可，熔断打开或半开状态的试探名额已用完时返回null
+     */
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                return null;
+            }
+            halfOpenInFlight++;
+        }
+        return new Permit(generation);
+    }
+
+    /**
+     * 当前状态，打开时间已过时按半开状态返回
+     *
+     * @return 熔断器状态
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private synchronized void record(long permitGeneration, Boolean failed) {
+        // 状态切换前发出的许可，结果不再计入当前状态
+        if (permitGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenInFlight--;
+            if (failed == null) {
+                return;
+            }
+            if (failed) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (failed == null) {
+            return;
+        }
+        if (windowCalls == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+        if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+            log.warn("AI熔断器{}最近{}次调用失败{}次，熔断打开", name, windowCalls, windowFailures);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        if (state != next) {
+            log.info("AI熔断器{}状态: {} -> {}", name, state, next);
+        }
+        state = next;
+        generation++;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (next == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        } else {
+            windowNext = 0;
+            windowCalls = 0;
+            windowFailures = 0;
+        }
+    }
+
+    /**
+     * 一次调用许可，调用结束时报告结果，只有第一次报告有效
+     */
+    public final class Permit {
+
+        private final long permitGeneration;
+        private boolean reported;
+
+        private Permit(long permitGeneration) {
+            this.permitGeneration = permitGeneration;
+        }
+
+        /**
+         * 调用成功
+         */
+        public void onSuccess() {
+            report(false);
+        }
+
+        /**
+         * 调用出错、超时或过慢
+         */
+        public void onFailure() {
+            report(true);
+        }
+
+        /**
+         * 调用被调用方取消，结果不计入统计，只归还半开状态的试探名额
+         */
+        public void release() {
+            report(null);
+        }
+
+        private void report(Boolean failed) {
+            synchronized (AiCircuitBreaker.this) {
+                if (reported) {
+                    return;
+                }
+                reported = true;
+                record(permitGeneration, failed);
+            }
+        }
+    }
+}
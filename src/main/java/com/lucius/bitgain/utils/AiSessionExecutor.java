@@ -0,0 +1,187 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AI推荐会话执行器
+ * 限制单节点和单用户同时进行的AI会话数量，超出上限的会话进入有界队列排队，队列满则直接拒绝，
+ * 排队和拒绝都会通过SSE事件告知前端。会话在流式响应结束（SseEmitter完成、超时或出错）前持续占用名额。
+ */
+@Slf4j
+@Component
+public class AiSessionExecutor implements DisposableBean {
+
+    private static final String REJECTED_BY_NODE = "当前AI推荐请求过多，请稍后再试";
+    private static final String REJECTED_BY_USER = "您已有进行中的AI推荐，请等待完成后再试";
+
+    private final AiProperties.Session config;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, Integer> userSessions = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
+    private final Counter rejectedByNode;
+    private final Counter rejectedByUser;
+
+    public AiSessionExecutor(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        this.config = aiProperties.getSession();
+        this.executor = new ThreadPoolExecutor(
+                config.getMaxConcurrent(),
+                config.getMaxConcurrent(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(config.getQueueCapacity()),
+                new CustomizableThreadFactory("ai-session-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("bitgain.ai.session.queue.depth", executor, e -> e.getQueue().size())
+                .description("排队等待的AI会话数")
+                .register(meterRegistry);
+        Gauge.builder("bitgain.ai.session.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("进行中的AI会话数")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("bitgain.ai.session.wait")
+                .description("AI会话从提交到开始执行的等待时间")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedByNode = Counter.builder("bitgain.ai.session.rejected")
+                .tag("reason", "node")
+                .register(meterRegistry);
+        this.rejectedByUser = Counter.builder("bitgain.ai.session.rejected")
+                .tag("reason", "user")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交AI会话，超出单用户上限或队列已满时直接向前端发送rejected事件并结束连接
+     *
+     * @param userId  用户ID
+     * @param emitter 会话对应的SSE连接
+     * @param session 会话任务
+     * @return 会话被接受（开始执行或进入排队）时返回true
+     */
+    public boolean submit(Long userId, SseEmitter emitter, Runnable session) {
+        if (!acquireUserSlot(userId)) {
+            rejectedByUser.increment();
+            reject(emitter, REJECTED_BY_USER);
+            return false;
+        }
+
+        CountDownLatch finished = new CountDownLatch(1);
+        emitter.onCompletion(finished::countDown);
+        emitter.onTimeout(finished::countDown);
+        emitter.onError(e -> finished.countDown());
+
+        if (executor.getActiveCount() >= config.getMaxConcurrent()) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                releaseUserSlot(userId);
+                rejectedByNode.increment();
+                reject(emitter, REJECTED_BY_NODE);
+                return false;
+            }
+            notifyQueued(emitter, executor.getQueue().size());
+        }
+
+        long submitNanos = System.nanoTime();
+        try {
+            executor.execute(() -> runSession(userId, session, submitNanos, finished));
+            return true;
+        } catch (RejectedExecutionException e) {
+            releaseUserSlot(userId);
+            rejectedByNode.increment();
+            reject(emitter, REJECTED_BY_NODE);
+            return false;
+        }
+    }
+
+    /**
+     * 当前排队等待的会话数
+     *
+     * @return 队列深度
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 当前进行中的会话数
+     *
+     * @return 进行中的会话数
+     */
+    public int getActiveSessions() {
+        return executor.getActiveCount();
+    }
+
+    private void runSession(Long userId, Runnable session, long submitNanos, CountDownLatch finished) {
+        waitTimer.record(System.nanoTime() - submitNanos, TimeUnit.NANOSECONDS);
+        try {
+            session.run();
+            // 流式响应在其他线程上继续推送，会话结束前保持占用名额
+            if (!finished.await(config.getMaxSessionMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("用户{}的AI会话超过{}ms未结束，强制释放名额", userId, config.getMaxSessionMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("用户{}的AI会话执行失败", userId, e);
+        } finally {
+            releaseUserSlot(userId);
+        }
+    }
+
+    private boolean acquireUserSlot(Long userId) {
+        AtomicBoolean acquired = new AtomicBoolean(false);
+        userSessions.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= config.getMaxPerUser()) {
+                return count;
+            }
+            acquired.set(true);
+            return current + 1;
+        });
+        return acquired.get();
+    }
+
+    private void releaseUserSlot(Long userId) {
+        userSessions.computeIfPresent(userId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private void notifyQueued(SseEmitter emitter, int waitingAhead) {
+        try {
+            emitter.send(SseEmitter.event().name("queued").data("当前排队人数较多，您前面还有" + waitingAhead + "个请求"));
+        } catch (IOException e) {
+            log.warn("发送排队消息失败", e);
+        }
+    }
+
+    private void reject(SseEmitter emitter, String message) {
+        log.warn("AI会话被拒绝: {}", message);
+        try {
+            emitter.send(SseEmitter.event().name("rejected").data(message));
+            emitter.complete();
+        } catch (IOException e) {
+            log.warn("发送拒绝消息失败", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
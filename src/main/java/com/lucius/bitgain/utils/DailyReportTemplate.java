@@ -0,0 +1,305 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.entity.TodayGoal;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.vo.ReportStatisticsVO;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日报HTML模板
+ * 启动时从 templates/daily-report.html 读取并编译所有片段：静态内容预先拼接成常量字符串，
+ * 参数位置预先解析，渲染时只按顺序追加常量和转义后的用户数据，不再逐段拼接样式字符串。
+ * 编译后的模板不可变，可被多个日报线程共享。
+ */
+@Component
+public class DailyReportTemplate {
+
+    private static final String TEMPLATE_PATH = "templates/daily-report.html";
+    private static final String FRAGMENT_MARKER = "<!--#";
+
+    private final Fragment header;
+    private final Fragment goalsOpen;
+    private final Fragment goalsEmpty;
+    private final Fragment goalsSummary;
+    private final Fragment goalItem;
+    private final Fragment goalsListClose;
+    private final Fragment sectionClose;
+    private final Fragment tasksOpen;
+    private final Fragment tasksEmpty;
+    private final Fragment tasksSummary;
+    private final Fragment taskItemStart;
+    private final Fragment taskDescription;
+    private final Fragment taskItemEnd;
+    private final Fragment tasksListClose;
+    private final Fragment rateExcellent;
+    private final Fragment rateGood;
+    private final Fragment rateFair;
+    private final Fragment ratePoor;
+    private final Fragment profileOpen;
+    private final Fragment profession;
+    private final Fragment profileGoals;
+    private final Fragment footer;
+    private final int baseCapacity;
+
+    public DailyReportTemplate() {
+        this(loadTemplate());
+    }
+
+    DailyReportTemplate(String source) {
+        Map<String, Fragment> fragments = compile(source);
+        this.header = require(fragments, "header");
+        this.goalsOpen = require(fragments, "goalsOpen");
+        this.goalsEmpty = require(fragments, "goalsEmpty");
+        this.goalsSummary = require(fragments, "goalsSummary");
+        this.goalItem = require(fragments, "goalItem");
+        this.goalsListClose = require(fragments, "goalsListClose");
+        this.sectionClose = require(fragments, "sectionClose");
+        this.tasksOpen = require(fragments, "tasksOpen");
+        this.tasksEmpty = require(fragments, "tasksEmpty");
+        this.tasksSummary = require(fragments, "tasksSummary");
+        this.taskItemStart = require(fragments, "taskItemStart");
+        this.taskDescription = require(fragments, "taskDescription");
+        this.taskItemEnd = require(fragments, "taskItemEnd");
+        this.tasksListClose = require(fragments, "tasksListClose");
+        this.rateExcellent = require(fragments, "rateExcellent");
+        this.rateGood = require(fragments, "rateGood");
+        this.rateFair = require(fragments, "rateFair");
+        this.ratePoor = require(fragments, "ratePoor");
+        this.profileOpen = require(fragments, "profileOpen");
+        this.profession = require(fragments, "profession");
+        this.profileGoals = require(fragments, "profileGoals");
+        this.footer = require(fragments, "footer");
+        this.baseCapacity = fragments.values().stream().mapToInt(Fragment::staticLength).sum();
+    }
+
+    /**
+     * 渲染日报HTML
+     *
+     * @param user       用户信息
+     * @param reportDate 报告日期
+     * @param todayGoals 今日目标
+     * @param todayTasks 今日固定任务
+     * @param statistics 任务统计数据
+     * @return 日报HTML
+     */
+    public String render(User user, LocalDate reportDate, List<TodayGoal> todayGoals,
+                         List<FixedTask> todayTasks, ReportStatisticsVO statistics) {
+        StringBuilder out = new StringBuilder(baseCapacity
+                + todayGoals.size() * (goalItem.staticLength() + 64)
+                + todayTasks.size() * (taskItemStart.staticLength() + taskDescription.staticLength()
+                + taskItemEnd.staticLength() + 128));
+
+        header.render(out, reportDate.toString(), user.getUsername());
+
+        // 今日目标部分
+        goalsOpen.render(out);
+        if (todayGoals.isEmpty()) {
+            goalsEmpty.render(out);
+        } else {
+            goalsSummary.render(out, Integer.toString(todayGoals.size()));
+            for (int i = 0; i < todayGoals.size(); i++) {
+                goalItem.render(out, Integer.toString(i + 1), todayGoals.get(i).getGoal());
+            }
+            goalsListClose.render(out);
+        }
+        sectionClose.render(out);
+
+        // 任务完成情况部分
+        tasksOpen.render(out);
+        if (todayTasks.isEmpty()) {
+            tasksEmpty.render(out);
+        } else {
+            double completionRate = statistics.getCompletionRate();
+            tasksSummary.render(out,
+                    Integer.toString(statistics.getTaskCount()),
+                    formatRate(completionRate),
+                    Integer.toString(statistics.getCompletedCount()),
+                    Integer.toString(statistics.getPendingCount()),
+                    Integer.toString(statistics.getAbandonedCount()));
+            for (FixedTask task : todayTasks) {
+                TaskStatusStyle style = TaskStatusStyle.of(task.getStatus());
+                taskItemStart.render(out, style.color, task.getTitle());
+                if (task.getDescription() != null && !task.getDescription().trim().isEmpty()) {
+                    taskDescription.render(out, task.getDescription());
+                }
+                taskItemEnd.render(out,
+                        task.getStartTime().toLocalTime().toString(),
+                        task.getEndTime().toLocalTime().toString(),
+                        style.color, style.icon, style.text);
+            }
+            tasksListClose.render(out);
+
+            // 完成情况评价
+            if (completionRate >= 80) {
+                rateExcellent.render(out);
+            } else if (completionRate >= 60) {
+                rateGood.render(out);
+            } else if (completionRate >= 40) {
+                rateFair.render(out);
+            } else {
+                ratePoor.render(out);
+            }
+        }
+        sectionClose.render(out);
+
+        // 用户信息部分
+        if (user.getProfession() != null || user.getGoals() != null) {
+            profileOpen.render(out);
+            if (user.getProfession() != null) {
+                profession.render(out, user.getProfession());
+            }
+            if (user.getGoals() != null) {
+                profileGoals.render(out, user.getGoals());
+            }
+            sectionClose.render(out);
+        }
+
+        footer.render(out);
+        return out.toString();
+    }
+
+    /**
+     * 按一位小数格式化完成率，与 String.format("%.1f") 的四舍五入一致，不依赖默认Locale
+     */
+    static String formatRate(double rate) {
+        long tenths = Math.round(rate * 10);
+        return (tenths / 10) + "." + (tenths % 10);
+    }
+
+    /**
+     * 追加HTML转义后的文本，不含特殊字符时直接追加原字符串
+     */
+    static void appendEscaped(StringBuilder out, String text) {
+        if (text == null) {
+            out.append("null");
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String replacement = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null) {
+                out.append(text, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    private static String loadTemplate() {
+        try (InputStream in = new ClassPathResource(TEMPLATE_PATH).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取日报模板失败: " + TEMPLATE_PATH, e);
+        }
+    }
+
+    /**
+     * 把模板源码切分成片段：片段内每行去掉首尾空白后直接拼接，并解析 {{n}} 参数位置
+     */
+    private static Map<String, Fragment> compile(String source) {
+        Map<String, StringBuilder> bodies = new HashMap<>();
+        StringBuilder current = null;
+        for (String line : source.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.startsWith(FRAGMENT_MARKER)) {
+                String name = trimmed.substring(FRAGMENT_MARKER.length(), trimmed.length() - "-->".length()).strip();
+                current = new StringBuilder();
+                bodies.put(name, current);
+            } else if (current != null) {
+                current.append(trimmed);
+            }
+        }
+
+        Map<String, Fragment> fragments = new HashMap<>();
+        bodies.forEach((name, body) -> fragments.put(name, Fragment.compile(name, body.toString())));
+        return fragments;
+    }
+
+    private static Fragment require(Map<String, Fragment> fragments, String name) {
+        Fragment fragment = fragments.get(name);
+        if (fragment == null) {
+            throw new IllegalStateException("日报模板缺少片段: " + name);
+        }
+        return fragment;
+    }
+
+    /**
+     * 编译后的模板片段：literals[i] 与 args[argIndexes[i]] 交替输出，最后输出 literals[n]
+     */
+    private record Fragment(String[] literals, int[] argIndexes, int staticLength) {
+
+        static Fragment compile(String name, String body) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> argIndexes = new ArrayList<>();
+            int start = 0;
+            int open;
+            while ((open = body.indexOf("{{", start)) >= 0) {
+                int close = body.indexOf("}}", open);
+                if (close < 0) {
+                    throw new IllegalStateException("日报模板片段 " + name + " 的参数未闭合");
+                }
+                literals.add(body.substring(start, open));
+                argIndexes.add(Integer.parseInt(body.substring(open + 2, close).strip()));
+                start = close + 2;
+            }
+            literals.add(body.substring(start));
+            return new Fragment(
+                    literals.toArray(new String[0]),
+                    argIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                    literals.stream().mapToInt(String::length).sum());
+        }
+
+        void render(StringBuilder out, String... args) {
+            for (int i = 0; i < argIndexes.length; i++) {
+                out.append(literals[i]);
+                appendEscaped(out, args[argIndexes[i]]);
+            }
+            out.append(literals[argIndexes.length]);
+        }
+    }
+
+    /**
+     * 任务状态对应的颜色、图标和文字
+     */
+    private enum TaskStatusStyle {
+        COMPLETED("#28a745", "✅", "已完成"),
+        PENDING("#ffc107", "⏳", "待完成"),
+        ABANDONED("#dc3545", "❌", "已放弃");
+
+        private final String color;
+        private final String icon;
+        private final String text;
+
+        TaskStatusStyle(String color, String icon, String text) {
+            this.color = color;
+            this.icon = icon;
+            this.text = text;
+        }
+
+        static TaskStatusStyle of(String status) {
+            if ("completed".equals(status)) {
+                return COMPLETED;
+            }
+            return "pending".equals(status) ? PENDING : ABANDONED;
+        }
+    }
+}
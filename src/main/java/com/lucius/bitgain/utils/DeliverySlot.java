@@ -0,0 +1,106 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.User;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 日报投递时段：时区 + 本地投递小时
+ * 同一时段的用户在同一时刻收到日报，调度、分片和续跑都以时段为单位。
+ *
+ * @param timezone     IANA时区ID
+ * @param deliveryHour 本地投递小时（0-23）
+ */
+public record DeliverySlot(String timezone, int deliveryHour) {
+
+    public static final String DEFAULT_TIMEZONE = "Asia/Shanghai";
+    public static final int DEFAULT_DELIVERY_HOUR = 20;
+
+    private static final char SEPARATOR = '@';
+
+    /**
+     * 用户所在的投递时段，未设置的字段使用默认值
+     *
+     * @param user 用户
+     * @return 投递时段
+     */
+    public static DeliverySlot of(User user) {
+        return new DeliverySlot(
+                user.getTimezone() != null ? user.getTimezone() : DEFAULT_TIMEZONE,
+                user.getDeliveryHour() != null ? user.getDeliveryHour() : DEFAULT_DELIVERY_HOUR);
+    }
+
+    /**
+     * 从 {@link #key()} 的格式解析投递时段
+     *
+     * @param key 时区@投递小时
+     * @return 投递时段
+     */
+    public static DeliverySlot parse(String key) {
+        int separator = key.lastIndexOf(SEPARATOR);
+        return new DeliverySlot(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)));
+    }
+
+    /**
+     * 校验时区ID
+     *
+     * @param timezone 时区ID
+     * @return 是否是有效的时区
+     */
+    public static boolean isValidTimezone(String timezone) {
+        try {
+            ZoneId.of(timezone);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 时段标识，写入report_shard.slot
+     */
+    public String key() {
+        return timezone + SEPARATOR + deliveryHour;
+    }
+
+    public ZoneId zoneId() {
+        return ZoneId.of(timezone);
+    }
+
+    /**
+     * 指定本地日期的投递时刻，夏令时跳过的时间顺延到跳变之后，重复的时间取第一次
+     *
+     * @param localDate 用户本地日期
+     * @return 投递时刻
+     */
+    public Instant fireInstant(LocalDate localDate) {
+        return ZonedDateTime.of(localDate, LocalTime.of(deliveryHour, 0), zoneId()).toInstant();
+    }
+
+    /**
+     * 指定分钟是否是本时段的投递时刻
+     *
+     * @param minute 时刻（按分钟截断）
+     * @return 是否投递
+     */
+    public boolean firesAt(Instant minute) {
+        Instant truncated = minute.truncatedTo(ChronoUnit.MINUTES);
+        return fireInstant(localDate(truncated)).equals(truncated);
+    }
+
+    /**
+     * 指定时刻在本时段时区的本地日期
+     *
+     * @param instant 时刻
+     * @return 本地日期
+     */
+    public LocalDate localDate(Instant instant) {
+        return instant.atZone(zoneId()).toLocalDate();
+    }
+}
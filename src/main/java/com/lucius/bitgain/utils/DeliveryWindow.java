@@ -0,0 +1,57 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.properties.ReportProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 日报投递窗口
+ * 每个用户的日报邮件在其本地投递时刻之后的投递窗口内按固定偏移投递。偏移由用户ID哈希决定，
+ * 与运行节点、分片处理顺序无关，用户每天收到日报的时间保持稳定，同一时段用户的发送被均匀摊开。
+ */
+@Component
+public class DeliveryWindow {
+
+    private final Duration window;
+
+    public DeliveryWindow(ReportProperties reportProperties) {
+        this.window = reportProperties.getDeliveryWindow();
+    }
+
+    /**
+     * 计算用户日报邮件的投递时间
+     *
+     * @param user       用户（使用其时区和投递小时）
+     * @param reportDate 报告日期（用户本地日期）
+     * @return 服务器时区下的投递时间，早于当前时间时邮件会被立即发送
+     */
+    public LocalDateTime deliveryTime(User user, LocalDate reportDate) {
+        LocalDateTime windowStart = LocalDateTime.ofInstant(
+                DeliverySlot.of(user).fireInstant(reportDate), ZoneId.systemDefault());
+        return windowStart.plusSeconds(offsetSeconds(user.getId(), window.toSeconds()));
+    }
+
+    /**
+     * 计算用户在投递窗口内的偏移秒数
+     *
+     * @param userId        用户ID
+     * @param windowSeconds 窗口长度（秒）
+     * @return [0, windowSeconds) 内的偏移，窗口为0时返回0
+     */
+    static long offsetSeconds(long userId, long windowSeconds) {
+        if (windowSeconds <= 0) {
+            return 0;
+        }
+        // SplitMix64 的混合函数，相邻ID也会被打散到窗口各处
+        long z = userId + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return Math.floorMod(z, windowSeconds);
+    }
+}
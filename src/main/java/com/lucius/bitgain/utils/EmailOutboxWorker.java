@@ -0,0 +1,185 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.EmailLog;
+import com.lucius.bitgain.mapper.EmailLogMapper;
+import com.lucius.bitgain.mapper.ReportMapper;
+import com.lucius.bitgain.properties.OutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件发件箱发送线程池
+ * 每个发送线程在短事务中用 SELECT ... FOR UPDATE SKIP LOCKED 认领一批到期邮件并标记为sending（带租约），
+ * 提交后再在事务外通过MailBatchSender复用SMTP连接批量发送，多个线程、多个节点之间不会重复认领。
+ * 发送失败按指数退避重新排期，达到最大次数后标记为failed；报告邮件发送成功后回写report.email_sent。
+ * 认领时写入的租约到期时间同时作为本线程的持有凭证，回写结果时校验凭证，
+ * 租约过期被其他线程重新认领后，原线程的结果不会覆盖新线程的结果。
+ */
+@Slf4j
+@Component
+public class EmailOutboxWorker implements InitializingBean, DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxProperties config;
+    private final EmailLogMapper emailLogMapper;
+    private final ReportMapper reportMapper;
+    private final MailBatchSender mailBatchSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter leaseLost;
+
+    public EmailOutboxWorker(OutboxProperties config, EmailLogMapper emailLogMapper, ReportMapper reportMapper,
+                             MailBatchSender mailBatchSender, TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.config = config;
+        this.emailLogMapper = emailLogMapper;
+        this.reportMapper = reportMapper;
+        this.mailBatchSender = mailBatchSender;
+        this.transactionTemplate = transactionTemplate;
+        this.scheduler = Executors.newScheduledThreadPool(config.getWorkers(), new CustomizableThreadFactory("mail-outbox-"));
+        this.sent = Counter.builder("bitgain.mail.outbox.sent").tag("result", "success").register(meterRegistry);
+        this.retried = Counter.builder("bitgain.mail.outbox.sent").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("bitgain.mail.outbox.sent").tag("result", "failed").register(meterRegistry);
+        this.leaseLost = Counter.builder("bitgain.mail.outbox.sent").tag("result", "lease_lost").register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!config.isEnabled()) {
+            log.info("邮件发件箱发送线程未启用");
+            return;
+        }
+        long intervalMillis = config.getPollInterval().toMillis();
+        for (int i = 0; i < config.getWorkers(); i++) {
+            // 错开各线程的首次轮询，避免同时争抢同一批邮件
+            long initialDelay = intervalMillis * i / config.getWorkers();
+            scheduler.scheduleWithFixedDelay(this::drain, initialDelay, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        log.info("邮件发件箱已启动{}个发送线程", config.getWorkers());
+    }
+
+    /**
+     * 计算第attempt次发送失败后的重试等待时间：initialBackoff * 2^(attempt-1)，不超过maxBackoff
+     *
+     * @param attempt        已失败的次数，从1开始
+     * @param initialBackoff 首次重试等待时间
+     * @param maxBackoff     重试等待时间上限
+     * @return 重试等待时间
+     */
+    public static Duration backoff(int attempt, Duration initialBackoff, Duration maxBackoff) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    /**
+     * 持续认领并发送到期邮件，直到没有可认领的邮件
+     */
+    void drain() {
+        try {
+            List<EmailLog> claimed;
+            do {
+                claimed = claim();
+                if (!claimed.isEmpty()) {
+                    deliver(claimed);
+                }
+            } while (claimed.size() >= config.getClaimBatchSize() && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            // 异常不能抛出，否则定时任务会被取消
+            log.error("邮件发件箱轮询失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<EmailLog> claim() {
+        List<EmailLog> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailLog> due = emailLogMapper.selectDueForUpdate(now, config.getClaimBatchSize());
+            if (!due.isEmpty()) {
+                // 截断到秒，与DATETIME列保存的值一致，回写时才能按租约时间精确匹配
+                LocalDateTime leaseUntil = now.plus(config.getLeaseTimeout()).truncatedTo(ChronoUnit.SECONDS);
+                emailLogMapper.markSending(due.stream().map(EmailLog::getId).toList(), leaseUntil);
+                due.forEach(email -> {
+                    email.setSendStatus(EmailLog.STATUS_SENDING);
+                    email.setNextRetryTime(leaseUntil);
+                });
+            }
+            return due;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void deliver(List<EmailLog> emails) {
+        Map<Long, Exception> failures = mailBatchSender.send(emails);
+        LocalDateTime sendTime = LocalDateTime.now();
+        for (EmailLog email : emails) {
+            Exception failure = failures.get(email.getId());
+            if (failure != null) {
+                recordFailure(email, failure);
+                continue;
+            }
+            if (emailLogMapper.markSuccess(email.getId(), email.getNextRetryTime(), sendTime) == 0) {
+                onLeaseLost(email);
+                continue;
+            }
+            if (email.getReportId() != null) {
+                reportMapper.markEmailSent(email.getReportId());
+            }
+            sent.increment();
+        }
+        log.info("本批{}封邮件发送完成，失败{}封", emails.size(), failures.size());
+    }
+
+    private void recordFailure(EmailLog email, Exception e) {
+        int attempts = (email.getRetryCount() == null ? 0 : email.getRetryCount()) + 1;
+        String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (attempts >= config.getMaxAttempts()) {
+            if (emailLogMapper.markFailed(email.getId(), email.getNextRetryTime(), attempts, error) == 0) {
+                onLeaseLost(email);
+                return;
+            }
+            failed.increment();
+            log.error("发送至 {} 的邮件失败{}次，不再重试: {}", email.getRecipient(), attempts, error);
+            return;
+        }
+        Duration delay = backoff(attempts, config.getInitialBackoff(), config.getMaxBackoff());
+        if (emailLogMapper.markRetry(email.getId(), email.getNextRetryTime(), attempts,
+                LocalDateTime.now().plus(delay), error) == 0) {
+            onLeaseLost(email);
+            return;
+        }
+        retried.increment();
+        log.warn("发送至 {} 的邮件第{}次失败，{}秒后重试: {}", email.getRecipient(), attempts, delay.toSeconds(), error);
+    }
+
+    private void onLeaseLost(EmailLog email) {
+        leaseLost.increment();
+        log.warn("邮件{}的认领租约已过期并被重新认领，放弃回写本次发送结果", email.getId());
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,75 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.properties.ScheduleProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 空闲时间计算器
+ * 将用户某天的固定任务裁剪到可安排时间范围内，按开始时间排序后合并为互不重叠的忙碌区间，
+ * 区间之间不短于最短时长的间隙即为空闲时间段。与存储过程 sp_calculate_free_time 的口径一致。
+ */
+@Component
+public class FreeTimeCalculator {
+
+    private final ScheduleProperties scheduleProperties;
+
+    public FreeTimeCalculator(ScheduleProperties scheduleProperties) {
+        this.scheduleProperties = scheduleProperties;
+    }
+
+    /**
+     * 计算指定日期的空闲时间段
+     *
+     * @param tasks 当天的固定任务（可以无序、相互重叠或超出可安排时间范围）
+     * @param date  日期
+     * @return 按开始时间升序排列的空闲时间段
+     */
+    public List<FreeTimeSlotVO> calculate(List<FixedTask> tasks, LocalDate date) {
+        LocalDateTime windowStart = date.atTime(scheduleProperties.getWorkStart());
+        LocalDateTime windowEnd = date.atTime(scheduleProperties.getWorkEnd());
+        List<FreeTimeSlotVO> freeSlots = new ArrayList<>();
+        if (!windowStart.isBefore(windowEnd)) {
+            return freeSlots;
+        }
+
+        List<FixedTask> busy = tasks.stream()
+                .filter(task -> task.getStartTime() != null && task.getEndTime() != null)
+                .filter(task -> task.getStartTime().isBefore(windowEnd) && task.getEndTime().isAfter(windowStart))
+                .sorted(Comparator.comparing(FixedTask::getStartTime))
+                .toList();
+
+        LocalDateTime cursor = windowStart;
+        for (FixedTask task : busy) {
+            if (task.getStartTime().isAfter(cursor)) {
+                addSlot(freeSlots, cursor, task.getStartTime());
+            }
+            if (task.getEndTime().isAfter(cursor)) {
+                cursor = task.getEndTime().isBefore(windowEnd) ? task.getEndTime() : windowEnd;
+            }
+        }
+        if (cursor.isBefore(windowEnd)) {
+            addSlot(freeSlots, cursor, windowEnd);
+        }
+        return freeSlots;
+    }
+
+    private void addSlot(List<FreeTimeSlotVO> freeSlots, LocalDateTime start, LocalDateTime end) {
+        long minutes = Duration.between(start, end).toMinutes();
+        if (minutes >= scheduleProperties.getMinFreeMinutes()) {
+            freeSlots.add(FreeTimeSlotVO.builder()
+                    .startTime(start)
+                    .endTime(end)
+                    .durationMinutes(minutes)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.EmailLog;
+import com.lucius.bitgain.properties.OutboxProperties;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 邮件批量发送器
+ * 把一批邮件按sendBatchSize分组，每组通过 JavaMailSender.send(MimeMessage...) 在同一个SMTP连接上连续发送，
+ * 每组只需一次连接和STARTTLS握手。单封邮件发送失败不影响同组其他邮件，失败结果按邮件日志ID返回。
+ * 发送前按组从令牌桶申请令牌，本节点所有发送线程合计不超过 ratePerSecond 封/秒。
+ */
+@Slf4j
+@Component
+public class MailBatchSender {
+
+    private final JavaMailSender mailSender;
+    private final OutboxProperties config;
+    private final String fromEmail;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public MailBatchSender(JavaMailSender mailSender, OutboxProperties config,
+                           @Value("${spring.mail.username}") String fromEmail) {
+        this.mailSender = mailSender;
+        this.config = config;
+        this.fromEmail = fromEmail;
+        this.rateLimiter = config.getRatePerSecond() > 0
+                ? new TokenBucketRateLimiter(config.getRatePerSecond(), config.getBurst())
+                : null;
+    }
+
+    /**
+     * 发送一批邮件
+     *
+     * @param emails 待发送的邮件日志
+     * @return 发送失败的邮件日志ID及原因，不在其中的邮件都已发送成功
+     */
+    public Map<Long, Exception> send(List<EmailLog> emails) {
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+        int batchSize = Math.max(1, config.getSendBatchSize());
+        Map<MimeMessage, EmailLog> batch = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batchSize);
+        for (EmailLog email : emails) {
+            try {
+                MimeMessage message = createMessage(email);
+                batch.put(message, email);
+                messages.add(message);
+            } catch (Exception e) {
+                failures.put(email.getId(), e);
+                continue;
+            }
+            if (messages.size() >= batchSize) {
+                sendBatch(messages, batch, failures);
+            }
+        }
+        if (!messages.isEmpty()) {
+            sendBatch(messages, batch, failures);
+        }
+        return failures;
+    }
+
+    private MimeMessage createMessage(EmailLog email) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getContent(), true); // true表示HTML格式
+        return message;
+    }
+
+    private void sendBatch(List<MimeMessage> messages, Map<MimeMessage, EmailLog> batch, Map<Long, Exception> failures) {
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire(messages.size());
+            }
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.forEach(message -> failures.put(batch.get(message).getId(), e));
+            } else {
+                e.getFailedMessages().forEach((message, cause) -> {
+                    EmailLog email = batch.get(message);
+                    if (email != null) {
+                        failures.put(email.getId(), cause);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            messages.forEach(message -> failures.put(batch.get(message).getId(), e));
+        } catch (MailException e) {
+            // 认证失败等连接级错误，整组都没有发出
+            log.warn("邮件批量发送失败，{}封邮件待重试: {}", messages.size(), e.getMessage());
+            messages.forEach(message -> failures.put(batch.get(message).getId(), e));
+        } finally {
+            messages.clear();
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.lucius.bitgain.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * AI推荐结果缓存
+ * 每个用户保留最近一次推荐的AI响应，并记录生成它的用户提示内容指纹（SHA-256）。
+ * 只有指纹一致（职业、技能、目标、今日目标、今日固定任务都没有变化）时才命中，
+ * 相关数据被修改时由对应的Service主动失效。
+ */
+@Component
+public class RecommendationCache {
+
+    private final Cache<Long, CachedRecommendation> cache;
+
+    public RecommendationCache(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        AiProperties.Recommendation config = aiProperties.getRecommendation();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ai.recommendation");
+    }
+
+    /**
+     * 计算用户提示内容的指纹
+     *
+     * @param userPrompt 用户提示内容
+     * @return SHA-256十六进制字符串
+     */
+    public static String fingerprint(String userPrompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(userPrompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 查询缓存的AI响应
+     *
+     * @param userId      用户ID
+     * @param fingerprint 当前用户提示内容指纹
+     * @return 指纹一致时返回缓存的AI响应，否则返回null
+     */
+    public String get(Long userId, String fingerprint) {
+        CachedRecommendation cached = cache.getIfPresent(userId);
+        if (cached == null || !cached.fingerprint().equals(fingerprint)) {
+            return null;
+        }
+        return cached.response();
+    }
+
+    /**
+     * 缓存AI响应
+     *
+     * @param userId      用户ID
+     * @param fingerprint 用户提示内容指纹
+     * @param response    AI响应（{"tasks":[...]}格式）
+     */
+    public void put(Long userId, String fingerprint, String response) {
+        cache.put(userId, new CachedRecommendation(fingerprint, response));
+    }
+
+    /**
+     * 失效用户的推荐缓存
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    private record CachedRecommendation(String fingerprint, String response) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.constant.AIConstant;
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.entity.TodayGoal;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.properties.AiProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * AI任务推荐的提示组装
+ * 系统提示固定为 {@link AIConstant#RECOMMEND_SYSTEM}，由ChatClient的defaultSystem发送且只发送一次；
+ * 本类只生成用户提示，并在发送前估算输入token数，超出预算时截断用户填写的技能和目标文本，
+ * 日程和空闲时间段是推荐的依据，保持完整。
+ */
+@Slf4j
+@Component
+public class RecommendationPromptAssembler {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final String NOT_SET = "未设置";
+    private static final String OMITTED = "（内容过长已省略）";
+    private static final String ELLIPSIS = "…";
+
+    private final TokenCountEstimator tokenCounter = new JTokkitTokenCountEstimator();
+    private final int maxInputTokens;
+    private final int systemTokens;
+    private final DistributionSummary inputTokens;
+    private final Counter trimmed;
+
+    public RecommendationPromptAssembler(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        this.maxInputTokens = aiProperties.getPrompt().getMaxInputTokens();
+        this.systemTokens = countTokens(AIConstant.RECOMMEND_SYSTEM);
+        this.inputTokens = DistributionSummary.builder("bitgain.ai.prompt.tokens")
+                .description("AI推荐的输入token估算值（系统提示 + 用户提示）")
+                .register(meterRegistry);
+        this.trimmed = Counter.builder("bitgain.ai.prompt.trimmed")
+                .description("超出token预算被截断的AI推荐提示数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 组装用户提示
+     *
+     * @param user       用户
+     * @param todayTasks 今日固定任务
+     * @param todayGoals 今日目标
+     * @param freeSlots  今日空闲时间段
+     * @return 用户提示及其输入token估算值
+     */
+    public AssembledPrompt assemble(User user, List<FixedTask> todayTasks, List<TodayGoal> todayGoals,
+                                    List<FreeTimeSlotVO> freeSlots) {
+        String skills = user.getSkills() != null ? user.getSkills() : NOT_SET;
+        String goals = user.getGoals() != null ? user.getGoals() : NOT_SET;
+        String prompt = render(user.getProfession(), skills, goals, todayTasks, todayGoals, freeSlots);
+        int tokens = systemTokens + countTokens(prompt);
+
+        boolean wasTrimmed = false;
+        if (tokens > maxInputTokens) {
+            int skillTokens = countTokens(skills);
+            int goalTokens = countTokens(goals);
+            int available = Math.max(0, maxInputTokens - (tokens - skillTokens - goalTokens));
+            // 预算在技能和目标之间平分，一方用不完的份额留给另一方
+            int skillBudget = available / 2;
+            int goalBudget = available - skillBudget;
+            if (skillTokens < skillBudget) {
+                goalBudget += skillBudget - skillTokens;
+            } else if (goalTokens < goalBudget) {
+                skillBudget += goalBudget - goalTokens;
+            }
+            skills = truncate(skills, skillBudget);
+            goals = truncate(goals, goalBudget);
+            prompt = render(user.getProfession(), skills, goals, todayTasks, todayGoals, freeSlots);
+            int trimmedTokens = systemTokens + countTokens(prompt);
+            log.info("用户{}的AI推荐提示约{}个token，超出预算{}，截断技能和目标后约{}个token",
+                    user.getId(), tokens, maxInputTokens, trimmedTokens);
+            if (trimmedTokens > maxInputTokens) {
+                log.warn("用户{}的日程信息本身已超出AI推荐的token预算{}", user.getId(), maxInputTokens);
+            }
+            tokens = trimmedTokens;
+            wasTrimmed = true;
+            trimmed.increment();
+        }
+        inputTokens.record(tokens);
+        return new AssembledPrompt(prompt, tokens, wasTrimmed);
+    }
+
+    /**
+     * 估算文本的token数
+     *
+     * @param text 文本
+     * @return token数
+     */
+    public int countTokens(String text) {
+        return tokenCounter.estimate(text);
+    }
+
+    /**
+     * 把文本截断到不超过maxTokens个token，截断处追加省略号
+     */
+    String truncate(String text, int maxTokens) {
+        if (countTokens(text) <= maxTokens) {
+            return text;
+        }
+        if (maxTokens <= countTokens(OMITTED)) {
+            return OMITTED;
+        }
+        // 按字符长度二分查找能放进预算的最长前缀
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (countTokens(prefix(text, mid) + ELLIPSIS) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return prefix(text, low) + ELLIPSIS;
+    }
+
+    private static String prefix(String text, int length) {
+        // 不在代理对中间截断
+        if (length > 0 && length < text.length() && Character.isHighSurrogate(text.charAt(length - 1))) {
+            length--;
+        }
+        return text.substring(0, length);
+    }
+
+    private static String render(String profession, String skills, String goals, List<FixedTask> todayTasks,
+                                 List<TodayGoal> todayGoals, List<FreeTimeSlotVO> freeSlots) {
+        StringBuilder prompt = new StringBuilder();
+
+        // 用户基本信息
+        prompt.append("用户信息:\n");
+        prompt.append("职业: ").append(profession != null ? profession : NOT_SET).append("\n");
+        prompt.append("技能: ").append(skills).append("\n");
+        prompt.append("目标: ").append(goals).append("\n");
+
+        // 今日目标
+        if (todayGoals != null && !todayGoals.isEmpty()) {
+            prompt.append("今日目标:\n");
+            for (TodayGoal goal : todayGoals) {
+                prompt.append("- ").append(goal.getGoal()).append("\n");
+            }
+        }
+        prompt.append("\n");
+
+        // 今日日程
+        prompt.append("今日已安排的固定任务:\n");
+        if (todayTasks.isEmpty()) {
+            prompt.append("暂无固定任务安排\n");
+        } else {
+            for (FixedTask task : todayTasks) {
+                prompt.append("- ").append(task.getTitle())
+                        .append(" (").append(task.getStartTime().format(TIME_FORMATTER))
+                        .append("-").append(task.getEndTime().format(TIME_FORMATTER))
+                        .append(")\n");
+            }
+        }
+
+        // 今日空闲时间段，由服务端计算，推荐任务只能安排在这些时间段内
+        prompt.append("\n今日空闲时间段:\n");
+        if (freeSlots.isEmpty()) {
+            prompt.append("暂无空闲时间\n");
+        } else {
+            for (FreeTimeSlotVO slot : freeSlots) {
+                prompt.append("- ").append(slot.getStartTime().format(TIME_FORMATTER))
+                        .append("-").append(slot.getEndTime().format(TIME_FORMATTER))
+                        .append(" (").append(slot.getDurationMinutes()).append("分钟)\n");
+            }
+        }
+
+        prompt.append("\n请根据用户的职业、技能、目标、今日目标和今日日程，在上述空闲时间段内推荐3-5个适合的碎片时间提升任务。");
+
+        return prompt.toString();
+    }
+
+    /**
+     * 组装好的用户提示
+     *
+     * @param userPrompt  用户提示
+     * @param inputTokens 输入token估算值（含系统提示）
+     * @param trimmed     是否因超出预算截断了技能或目标
+     */
+    public record AssembledPrompt(String userPrompt, int inputTokens, boolean trimmed) {
+    }
+}
@@ -0,0 +1,325 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.RecommendActivity;
+import com.lucius.bitgain.entity.TodayGoal;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.mapper.RecommendActivityMapper;
+import com.lucius.bitgain.properties.AiProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 规则推荐引擎
+ * 启动时把recommend_activity活动库加载成按职业、技能、标签划分的内存倒排索引，推荐时只累加命中项的分数，
+ * 再按分数把活动依次放进用户的空闲时间段，单次推荐在微秒级完成，不依赖AI服务。
+ * 既可作为快速推荐模式单独使用，也在AI推荐失败或超时时作为兜底。
+ */
+@Slf4j
+@Component
+public class RecommendationRuleEngine implements InitializingBean {
+
+    /**
+     * 不限职业的活动在profession_match中的写法
+     */
+    public static final String ANY_PROFESSION = "所有职业";
+
+    private static final int PROFESSION_WEIGHT = 3;
+    private static final int ANY_PROFESSION_WEIGHT = 1;
+    private static final int SKILL_WEIGHT = 2;
+    private static final int TAG_WEIGHT = 2;
+    private static final int SLOT_ALIGN_MINUTES = 5;
+    private static final Pattern SEPARATORS = Pattern.compile("[,，、;；/\\s]+");
+
+    private final RecommendActivityMapper recommendActivityMapper;
+    private final AiProperties.RuleEngine config;
+    private volatile Index index = Index.build(List.of());
+
+    public RecommendationRuleEngine(RecommendActivityMapper recommendActivityMapper, AiProperties aiProperties) {
+        this.recommendActivityMapper = recommendActivityMapper;
+        this.config = aiProperties.getRuleEngine();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 活动库不可用时规则推荐返回空结果，不影响应用启动
+            log.warn("加载推荐活动库失败，规则推荐暂不可用: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 重新加载活动库并重建索引，活动库在后台修改后定期生效
+     */
+    @Scheduled(initialDelayString = "${bitgain.ai.rule-engine.refresh-interval}",
+            fixedDelayString = "${bitgain.ai.rule-engine.refresh-interval}")
+    public void reload() {
+        load(recommendActivityMapper.selectAll());
+    }
+
+    /**
+     * 用给定的活动建立索引
+     *
+     * @param activities 推荐活动
+     */
+    public void load(List<RecommendActivity> activities) {
+        Index rebuilt = Index.build(activities);
+        this.index = rebuilt;
+        log.info("推荐活动索引已重建，共{}个活动、{}个职业、{}个技能、{}个标签", rebuilt.activities.length,
+                rebuilt.byProfession.size(), rebuilt.bySkill.size(), rebuilt.byTag.size());
+    }
+
+    /**
+     * 为用户推荐活动并安排到空闲时间段
+     *
+     * @param user       用户（使用职业、技能、目标）
+     * @param todayGoals 今日目标
+     * @param freeSlots  今日空闲时间段
+     * @param notBefore  最早开始时间，早于该时间的空闲时间不再安排
+     * @return 按推荐顺序排列的活动及其安排时间，最多topK个
+     */
+    public List<Recommendation> recommend(User user, List<TodayGoal> todayGoals, List<FreeTimeSlotVO> freeSlots,
+                                          LocalDateTime notBefore) {
+        Index current = index;
+        int[] scores = score(current, user, todayGoals);
+        Integer[] ranked = rank(current, scores);
+        return place(current, ranked, scores, freeSlots, notBefore);
+    }
+
+    /**
+     * 累加用户职业、技能和目标在倒排索引中命中的活动分数
+     */
+    private static int[] score(Index index, User user, List<TodayGoal> todayGoals) {
+        int[] scores = new int[index.activities.length];
+        for (int i : index.anyProfession) {
+            scores[i] += ANY_PROFESSION_WEIGHT;
+        }
+
+        // 职业按包含匹配，"Java后端程序员"命中"程序员"
+        String profession = normalize(user.getProfession());
+        if (!profession.isEmpty()) {
+            for (Map.Entry<String, int[]> entry : index.byProfession.entrySet()) {
+                if (profession.contains(entry.getKey())) {
+                    addAll(scores, entry.getValue(), PROFESSION_WEIGHT);
+                }
+            }
+        }
+
+        // 用户技能逐项精确命中技能和标签
+        for (String skill : split(user.getSkills())) {
+            addAll(scores, index.bySkill.get(skill), SKILL_WEIGHT);
+            addAll(scores, index.byTag.get(skill), TAG_WEIGHT);
+        }
+
+        // 目标是自由文本，用索引中的技能和标签去匹配文本中出现的关键词
+        StringBuilder goalText = new StringBuilder(normalize(user.getGoals()));
+        if (todayGoals != null) {
+            for (TodayGoal goal : todayGoals) {
+                goalText.append(' ').append(normalize(goal.getGoal()));
+            }
+        }
+        if (!goalText.toString().isBlank()) {
+            String text = goalText.toString();
+            for (Map.Entry<String, int[]> entry : index.byTag.entrySet()) {
+                if (text.contains(entry.getKey())) {
+                    addAll(scores, entry.getValue(), TAG_WEIGHT);
+                }
+            }
+            for (Map.Entry<String, int[]> entry : index.bySkill.entrySet()) {
+                if (text.contains(entry.getKey())) {
+                    addAll(scores, entry.getValue(), SKILL_WEIGHT);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * 有分数的活动按分数、受欢迎程度、ID排序
+     */
+    private static Integer[] rank(Index index, int[] scores) {
+        int count = 0;
+        for (int score : scores) {
+            if (score > 0) {
+                count++;
+            }
+        }
+        Integer[] ranked = new Integer[count];
+        int next = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0) {
+                ranked[next++] = i;
+            }
+        }
+        Arrays.sort(ranked, (a, b) -> {
+            if (scores[a] != scores[b]) {
+                return Integer.compare(scores[b], scores[a]);
+            }
+            int popularity = Integer.compare(index.popularity[b], index.popularity[a]);
+            return popularity != 0 ? popularity : Long.compare(index.activities[a].getId(), index.activities[b].getId());
+        });
+        return ranked;
+    }
+
+    /**
+     * 按排序依次把活动放进第一个放得下的空闲时间段，同一分类最多maxPerCategory个
+     */
+    private List<Recommendation> place(Index index, Integer[] ranked, int[] scores, List<FreeTimeSlotVO> freeSlots,
+                                       LocalDateTime notBefore) {
+        List<LocalDateTime[]> slots = new ArrayList<>(freeSlots.size());
+        LocalDateTime earliest = alignUp(notBefore);
+        for (FreeTimeSlotVO slot : freeSlots) {
+            LocalDateTime start = slot.getStartTime().isBefore(earliest) ? earliest : slot.getStartTime();
+            if (start.isBefore(slot.getEndTime())) {
+                slots.add(new LocalDateTime[]{start, slot.getEndTime()});
+            }
+        }
+
+        List<Recommendation> result = new ArrayList<>(config.getTopK());
+        Map<String, Integer> perCategory = new HashMap<>();
+        for (int i : ranked) {
+            if (result.size() >= config.getTopK() || slots.isEmpty()) {
+                break;
+            }
+            RecommendActivity activity = index.activities[i];
+            if (perCategory.getOrDefault(activity.getCategory(), 0) >= config.getMaxPerCategory()) {
+                continue;
+            }
+            Duration duration = Duration.ofMinutes(activity.getDuration());
+            for (LocalDateTime[] slot : slots) {
+                LocalDateTime end = slot[0].plus(duration);
+                if (!end.isAfter(slot[1])) {
+                    result.add(new Recommendation(activity, slot[0], end, scores[i]));
+                    perCategory.merge(activity.getCategory(), 1, Integer::sum);
+                    slot[0] = end;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static LocalDateTime alignUp(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int remainder = minute.getMinute() % SLOT_ALIGN_MINUTES;
+        return remainder == 0 ? minute : minute.plusMinutes(SLOT_ALIGN_MINUTES - remainder);
+    }
+
+    private static void addAll(int[] scores, int[] postings, int weight) {
+        if (postings == null) {
+            return;
+        }
+        for (int i : postings) {
+            scores[i] += weight;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> split(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 一个推荐结果
+     *
+     * @param activity  推荐活动
+     * @param startTime 安排的开始时间
+     * @param endTime   安排的结束时间
+     * @param score     匹配分数
+     */
+    public record Recommendation(RecommendActivity activity, LocalDateTime startTime, LocalDateTime endTime,
+                                 int score) {
+    }
+
+    /**
+     * 不可变的索引快照，重建时整体替换
+     */
+    private static final class Index {
+
+        private final RecommendActivity[] activities;
+        private final int[] popularity;
+        private final int[] anyProfession;
+        private final Map<String, int[]> byProfession;
+        private final Map<String, int[]> bySkill;
+        private final Map<String, int[]> byTag;
+
+        private Index(RecommendActivity[] activities, int[] popularity, int[] anyProfession,
+                      Map<String, int[]> byProfession, Map<String, int[]> bySkill, Map<String, int[]> byTag) {
+            this.activities = activities;
+            this.popularity = popularity;
+            this.anyProfession = anyProfession;
+            this.byProfession = byProfession;
+            this.bySkill = bySkill;
+            this.byTag = byTag;
+        }
+
+        private static Index build(List<RecommendActivity> source) {
+            RecommendActivity[] activities = source.stream()
+                    .filter(activity -> activity.getDuration() != null && activity.getDuration() > 0)
+                    .toArray(RecommendActivity[]::new);
+            int[] popularity = new int[activities.length];
+            List<Integer> anyProfession = new ArrayList<>();
+            Map<String, List<Integer>> byProfession = new HashMap<>();
+            Map<String, List<Integer>> bySkill = new HashMap<>();
+            Map<String, List<Integer>> byTag = new HashMap<>();
+            for (int i = 0; i < activities.length; i++) {
+                RecommendActivity activity = activities[i];
+                popularity[i] = activity.getPopularity() != null ? activity.getPopularity() : 0;
+                Set<String> professions = split(activity.getProfessionMatch());
+                if (professions.isEmpty() || professions.remove(ANY_PROFESSION)) {
+                    anyProfession.add(i);
+                }
+                addPostings(byProfession, professions, i);
+                addPostings(bySkill, split(activity.getSkillsRequired()), i);
+                addPostings(byTag, split(activity.getTags()), i);
+            }
+            return new Index(activities, popularity, toArray(anyProfession),
+                    freeze(byProfession), freeze(bySkill), freeze(byTag));
+        }
+
+        private static void addPostings(Map<String, List<Integer>> index, Set<String> keys, int activity) {
+            for (String key : keys) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(activity);
+            }
+        }
+
+        private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+            Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+            index.forEach((key, postings) -> frozen.put(key, toArray(postings)));
+            return Map.copyOf(frozen);
+        }
+
+        private static int[] toArray(List<Integer> values) {
+            return values.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
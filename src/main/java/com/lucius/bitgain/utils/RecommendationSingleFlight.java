@@ -0,0 +1,305 @@
+package com.lucius.bitgain.utils;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * AI推荐请求合并（single-flight）
+ * 同一用户、同一提示指纹的并发请求（双击、客户端重试、多个标签页）只触发一次模型生成和一次草稿任务写入，
+ * 后到的请求挂到进行中的生成上：SSE连接先补发已生成的事件再接收后续事件，同步请求在生成结束时收到最终结果。
+ * 每个挂载的请求持有一个租约，全部租约释放（客户端都已离开）时才取消上游生成。
+ */
+@Slf4j
+@Component
+public class RecommendationSingleFlight {
+
+    private static final Gson GSON = new Gson();
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter started;
+    private final Counter coalesced;
+
+    public RecommendationSingleFlight(MeterRegistry meterRegistry) {
+        Gauge.builder("bitgain.ai.recommendation.inflight", flights, Map::size)
+                .description("进行中的AI推荐生成数")
+                .register(meterRegistry);
+        this.started = Counter.builder("bitgain.ai.recommendation.flights")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("bitgain.ai.recommendation.flights")
+                .tag("role", "follower")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 加入用户提示指纹对应的生成，没有进行中的生成时创建一个，由调用方（leader）负责执行
+     *
+     * @param userId      用户ID
+     * @param fingerprint 用户提示内容指纹
+     * @return 加入的生成，以及调用方是否需要执行它
+     */
+    public Joined join(Long userId, String fingerprint) {
+        String key = userId + ":" + fingerprint;
+        Flight created = new Flight(key);
+        Flight existing = flights.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            log.info("用户{}的相同AI推荐正在生成，合并到进行中的请求", userId);
+            return new Joined(existing, false);
+        }
+        started.increment();
+        return new Joined(created, true);
+    }
+
+    /**
+     * 进行中的生成数
+     *
+     * @return 生成数
+     */
+    public int getInFlight() {
+        return flights.size();
+    }
+
+    /**
+     * 加入结果
+     *
+     * @param flight 进行中的生成
+     * @param leader 调用方是否是第一个请求，需要执行生成
+     */
+    public record Joined(Flight flight, boolean leader) {
+    }
+
+    /**
+     * 一次AI推荐生成，推送的事件会扇出到所有挂载的SSE连接
+     */
+    public final class Flight {
+
+        private final String key;
+        private final List<Map<String, Object>> published = new ArrayList<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private final CompletableFuture<List<Map<String, Object>>> result = new CompletableFuture<>();
+        private int leases;
+        private boolean cancelled;
+        private String failureMessage;
+        private Disposable upstream;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 挂载SSE连接：先补发已生成的事件，生成已结束时直接补发结果并结束连接
+         *
+         * @param emitter SSE连接
+         * @return 租约，连接结束时释放
+         */
+        public synchronized Disposable attach(SseEmitter emitter) {
+            try {
+                for (Map<String, Object> taskDetail : published) {
+                    emitter.send(SseEmitter.event().name("task").data(GSON.toJson(taskDetail)));
+                }
+                if (result.isDone()) {
+                    sendOutcome(emitter);
+                    return () -> { };
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.warn("补发AI推荐事件失败: {}", e.getMessage());
+                return () -> { };
+            }
+            emitters.add(emitter);
+            Disposable lease = lease();
+            return () -> {
+                detach(emitter);
+                lease.dispose();
+            };
+        }
+
+        /**
+         * 获取租约，持有期间生成不会因为客户端全部离开而被取消
+         *
+         * @return 租约，重复释放无效
+         */
+        public synchronized Disposable lease() {
+            leases++;
+            boolean[] released = {false};
+            return new Disposable() {
+                @Override
+                public void dispose() {
+                    synchronized (Flight.this) {
+                        if (!released[0]) {
+                            released[0] = true;
+                            release();
+                        }
+                    }
+                }
+
+                @Override
+                public boolean isDisposed() {
+                    synchronized (Flight.this) {
+                        return released[0];
+                    }
+                }
+            };
+        }
+
+        /**
+         * 绑定上游流式订阅，生成被取消时一并取消
+         *
+         * @param subscription 上游订阅
+         */
+        public synchronized void bindUpstream(Disposable subscription) {
+            this.upstream = subscription;
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        /**
+         * 所有请求都已离开，不必再生成
+         *
+         * @return 已取消时返回true
+         */
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 推送一个已保存的推荐任务
+         *
+         * @param taskDetail 任务详情
+         */
+        public synchronized void publish(Map<String, Object> taskDetail) {
+            if (result.isDone()) {
+                return;
+            }
+            published.add(taskDetail);
+            String data = GSON.toJson(taskDetail);
+            for (SseEmitter emitter : List.copyOf(emitters)) {
+                try {
+                    emitter.send(SseEmitter.event().name("task").data(data));
+                } catch (IOException | IllegalStateException e) {
+                    log.warn("推送推荐任务失败，移除该连接: {}", e.getMessage());
+                    emitters.remove(emitter);
+                }
+            }
+        }
+
+        /**
+         * 生成成功：向所有连接推送完整任务列表并结束连接
+         *
+         * @param taskDetails 全部任务详情
+         */
+        public synchronized void complete(List<Map<String, Object>> taskDetails) {
+            if (result.complete(taskDetails)) {
+                finish();
+            }
+        }
+
+        /**
+         * 生成失败：向所有连接推送错误消息并以错误结束连接
+         *
+         * @param message 推送给前端的错误消息
+         * @param error   失败原因
+         */
+        public synchronized void fail(String message, Throwable error) {
+            this.failureMessage = message;
+            if (result.completeExceptionally(error)) {
+                finish();
+            }
+        }
+
+        /**
+         * 生成结束（成功、失败或取消）时回调，已结束时立即在调用线程回调
+         *
+         * @param callback 回调，成功时error为null，失败时taskDetails为null
+         */
+        public void whenDone(BiConsumer<List<Map<String, Object>>, Throwable> callback) {
+            result.whenComplete(callback);
+        }
+
+        /**
+         * 等待生成结果
+         *
+         * @param timeout 最长等待时间
+         * @return 全部任务详情
+         * @throws Exception 生成失败时抛出失败原因，超时抛出TimeoutException
+         */
+        public List<Map<String, Object>> await(Duration timeout) throws Exception {
+            try {
+                return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            } catch (TimeoutException e) {
+                throw new TimeoutException("等待进行中的AI推荐超时");
+            }
+        }
+
+        private void finish() {
+            flights.remove(key, this);
+            for (SseEmitter emitter : emitters) {
+                try {
+                    sendOutcome(emitter);
+                } catch (IOException | IllegalStateException e) {
+                    log.warn("推送AI推荐结果失败: {}", e.getMessage());
+                }
+            }
+            emitters.clear();
+        }
+
+        private void sendOutcome(SseEmitter emitter) throws IOException {
+            if (result.isCompletedExceptionally()) {
+                Throwable error = result.handle((value, e) -> e).join();
+                if (failureMessage != null) {
+                    emitter.send(failureMessage);
+                }
+                emitter.completeWithError(error);
+                return;
+            }
+            emitter.send(SseEmitter.event().data(GSON.toJson(result.join())));
+            emitter.send("end");
+            emitter.complete();
+        }
+
+        private void detach(SseEmitter emitter) {
+            synchronized (this) {
+                emitters.remove(emitter);
+            }
+        }
+
+        private void release() {
+            leases--;
+            if (leases > 0 || result.isDone()) {
+                return;
+            }
+            // 所有请求都已离开，取消生成，之后的相同请求重新发起
+            cancelled = true;
+            flights.remove(key, this);
+            result.completeExceptionally(new CancellationException("AI推荐请求均已离开"));
+            if (upstream != null) {
+                upstream.dispose();
+            }
+        }
+    }
+}
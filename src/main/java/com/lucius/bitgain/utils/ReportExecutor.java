@@ -0,0 +1,151 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.ReportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 日报生成执行器
+ * 使用独立的有界线程池执行日报生成和发送（阻塞的JDBC和SMTP操作），不占用公共ForkJoin池。
+ * 提交方在进行中和排队的任务达到上限时阻塞，扫描速度不会超过处理速度；每一轮发送通过 {@link Batch#await()}
+ * 等待全部任务结束并汇总成功、失败数量和耗时。
+ */
+@Slf4j
+@Component
+public class ReportExecutor implements DisposableBean {
+
+    private final ReportProperties config;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    public ReportExecutor(ReportProperties reportProperties, MeterRegistry meterRegistry) {
+        this.config = reportProperties;
+        this.executor = new ThreadPoolExecutor(
+                config.getConcurrency(),
+                config.getConcurrency(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("daily-report-"));
+        // 队列本身不设上限，由信号量限制进行中 + 排队的任务总数
+        this.permits = new Semaphore(config.getConcurrency() + config.getQueueCapacity());
+
+        Gauge.builder("bitgain.report.queue.depth", executor, e -> e.getQueue().size())
+                .description("排队等待的日报任务数")
+                .register(meterRegistry);
+        Gauge.builder("bitgain.report.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("进行中的日报任务数")
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("bitgain.report.sent")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("bitgain.report.sent")
+                .tag("result", "failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 开始一轮日报发送
+     *
+     * @return 本轮任务的提交和等待句柄
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 一轮日报发送的统计结果
+     *
+     * @param succeeded      成功数量
+     * @param failed         失败数量
+     * @param durationMillis 从开始提交到全部结束的耗时（毫秒）
+     * @param completed      是否在等待超时前全部结束
+     */
+    public record BatchResult(int succeeded, int failed, long durationMillis, boolean completed) {
+    }
+
+    /**
+     * 一轮日报发送，非线程安全，由单个扫描线程提交任务
+     */
+    public final class Batch {
+
+        private final long startMillis = System.currentTimeMillis();
+        private final Phaser pending = new Phaser(1);
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger failureCount = new AtomicInteger();
+
+        private Batch() {
+        }
+
+        /**
+         * 提交一个日报任务，进行中和排队的任务已满时阻塞等待
+         *
+         * @param task 日报任务，抛出异常视为失败（异常由任务自行记录日志）
+         * @throws InterruptedException 等待期间被中断
+         */
+        public void submit(Callable<?> task) throws InterruptedException {
+            permits.acquire();
+            pending.register();
+            try {
+                executor.execute(() -> run(task));
+            } catch (RuntimeException e) {
+                permits.release();
+                pending.arriveAndDeregister();
+                throw e;
+            }
+        }
+
+        /**
+         * 等待本轮已提交的任务全部结束
+         *
+         * @return 统计结果
+         */
+        public BatchResult await() throws InterruptedException {
+            boolean completed = true;
+            try {
+                pending.awaitAdvanceInterruptibly(pending.arrive(),
+                        config.getAwaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                completed = false;
+                log.warn("日报任务超过{}未全部结束，剩余{}个", config.getAwaitTimeout(), pending.getUnarrivedParties());
+            }
+            return new BatchResult(successCount.get(), failureCount.get(),
+                    System.currentTimeMillis() - startMillis, completed);
+        }
+
+        private void run(Callable<?> task) {
+            try {
+                task.call();
+                successCount.incrementAndGet();
+                succeeded.increment();
+            } catch (Exception e) {
+                failureCount.incrementAndGet();
+                failed.increment();
+                log.debug("日报任务执行失败", e);
+            } finally {
+                permits.release();
+                pending.arriveAndDeregister();
+            }
+        }
+    }
+}
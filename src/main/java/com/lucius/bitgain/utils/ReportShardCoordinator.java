@@ -0,0 +1,133 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.ReportShard;
+import com.lucius.bitgain.mapper.ReportShardMapper;
+import com.lucius.bitgain.properties.ReportProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 日报分片协调器
+ * 每个投递时段每天的日报按用户ID范围切分成固定跨度的分片写入report_shard，分片边界只由shardSpan决定，
+ * 多个节点同时规划得到的分片完全一致；只规划时段内最小到最大订阅用户ID覆盖的分片，用户稀疏的时段不会产生大量空分片。节点在短事务中用 SELECT ... FOR UPDATE SKIP LOCKED 认领分片并持有租约，
+ * 每处理完一批用户记录检查点并续租；节点宕机后租约过期，其他节点从检查点接管。
+ */
+@Slf4j
+@Component
+public class ReportShardCoordinator {
+
+    private final ReportShardMapper reportShardMapper;
+    private final ReportProperties config;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public ReportShardCoordinator(ReportShardMapper reportShardMapper, ReportProperties reportProperties,
+                                  TransactionTemplate transactionTemplate) {
+        this.reportShardMapper = reportShardMapper;
+        this.config = reportProperties;
+        this.transactionTemplate = transactionTemplate;
+        // pid@hostname 加随机后缀，同一台机器上重启后也不会误认为仍持有之前的租约
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 规划投递时段在指定日期的分片，已存在的分片保持不变
+     *
+     * @param runDate   日报日期（时段时区的本地日期）
+     * @param slot      投递时段
+     * @param minUserId 时段内订阅用户的最小ID，为null时不创建分片
+     * @param maxUserId 时段内订阅用户的最大ID，为null时不创建分片
+     * @return 新创建的分片数
+     */
+    public int plan(LocalDate runDate, DeliverySlot slot, Long minUserId, Long maxUserId) {
+        if (minUserId == null || maxUserId == null || maxUserId <= 0) {
+            return 0;
+        }
+        long span = config.getShardSpan();
+        // 分片序号仍按 (用户ID - 1) / span 对齐，只是跳过最小订阅用户之前的分片
+        int firstShardNo = (int) ((Math.max(minUserId, 1) - 1) / span);
+        int lastShardNo = (int) ((maxUserId - 1) / span);
+        int shardCount = lastShardNo - firstShardNo + 1;
+        LocalDateTime now = LocalDateTime.now();
+        List<ReportShard> shards = new ArrayList<>(shardCount);
+        for (int shardNo = firstShardNo; shardNo <= lastShardNo; shardNo++) {
+            long startUserId = shardNo * span + 1;
+            shards.add(ReportShard.builder()
+                    .runDate(runDate)
+                    .slot(slot.key())
+                    .shardNo(shardNo)
+                    .startUserId(startUserId)
+                    .endUserId(startUserId + span)
+                    .checkpointUserId(startUserId - 1)
+                    .status(ReportShard.STATUS_PENDING)
+                    .createTime(now)
+                    .updateTime(now)
+                    .build());
+        }
+        int created = reportShardMapper.insertIgnore(shards);
+        log.info("{} 时段 {} 的日报共{}个分片，本节点新建{}个", runDate, slot.key(), shardCount, created);
+        return created;
+    }
+
+    /**
+     * 认领一个未完成且没有有效租约的分片
+     *
+     * @param fromDate 日报日期起点（包含）
+     * @param toDate   日报日期终点（包含）
+     * @return 认领到的分片，没有可认领的分片时返回null
+     */
+    public ReportShard claim(LocalDate fromDate, LocalDate toDate) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            ReportShard shard = reportShardMapper.selectClaimableForUpdate(fromDate, toDate, now);
+            if (shard == null) {
+                return null;
+            }
+            LocalDateTime leaseUntil = now.plus(config.getShardLeaseTimeout());
+            reportShardMapper.claim(shard.getId(), owner, leaseUntil);
+            shard.setStatus(ReportShard.STATUS_RUNNING);
+            shard.setOwner(owner);
+            shard.setLeaseUntil(leaseUntil);
+            return shard;
+        });
+    }
+
+    /**
+     * 记录检查点并续租
+     *
+     * @param shard            分片
+     * @param checkpointUserId 已处理完的最后一个用户ID
+     * @return 租约仍由本节点持有时返回true，租约已被接管时返回false
+     */
+    public boolean checkpoint(ReportShard shard, Long checkpointUserId) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(config.getShardLeaseTimeout());
+        if (reportShardMapper.checkpoint(shard.getId(), owner, checkpointUserId, leaseUntil) == 0) {
+            log.warn("日报分片{}的租约已被其他节点接管，停止处理", shard.getShardNo());
+            return false;
+        }
+        shard.setCheckpointUserId(checkpointUserId);
+        shard.setLeaseUntil(leaseUntil);
+        return true;
+    }
+
+    /**
+     * 标记分片完成
+     *
+     * @param shard 分片
+     */
+    public void complete(ReportShard shard) {
+        if (reportShardMapper.complete(shard.getId(), owner) == 0) {
+            log.warn("日报分片{}的租约已被其他节点接管，未能标记完成", shard.getShardNo());
+            return;
+        }
+        shard.setStatus(ReportShard.STATUS_DONE);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lucius.bitgain.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 日报投递时间轮
+ * 一天按UTC分钟划分成1440个槽，每个投递时段（时区 + 本地投递小时）放入其投递时刻所在的槽。
+ * 调度器每分钟只需取出当前分钟的槽，就能得到本地时间刚好到达投递小时的时段，不必扫描全部用户。
+ * 槽位按当天和次日的投递时刻各放一次，取出时再按时段的真实投递时刻校验，夏令时切换当天也不会错发；
+ * 定期整体重建以跟随时段的增减和时区规则变化。
+ */
+@Slf4j
+@Component
+public class ReportTimingWheel {
+
+    private static final int SLOTS = 24 * 60;
+
+    private volatile List<List<DeliverySlot>> wheel = emptyWheel();
+    private volatile Instant refreshedAt;
+
+    /**
+     * 用全部投递时段重建时间轮
+     *
+     * @param slots 投递时段
+     * @param now   当前时刻
+     */
+    public synchronized void refresh(Collection<DeliverySlot> slots, Instant now) {
+        List<List<DeliverySlot>> rebuilt = emptyWheel();
+        for (DeliverySlot slot : slots) {
+            place(rebuilt, slot, now);
+        }
+        this.wheel = rebuilt;
+        this.refreshedAt = now;
+        log.info("日报时间轮已重建，共{}个投递时段", slots.size());
+    }
+
+    /**
+     * 加入一个投递时段（用户修改时区或投递时间后调用），已存在时忽略
+     *
+     * @param slot 投递时段
+     */
+    public synchronized void register(DeliverySlot slot) {
+        List<List<DeliverySlot>> updated = new ArrayList<>(wheel);
+        place(updated, slot, Instant.now());
+        this.wheel = updated;
+    }
+
+    /**
+     * 距离上次重建是否已超过指定时长
+     *
+     * @param now      当前时刻
+     * @param interval 重建间隔
+     * @return 需要重建时返回true
+     */
+    public boolean isStale(Instant now, Duration interval) {
+        Instant last = refreshedAt;
+        return last == null || !now.isBefore(last.plus(interval));
+    }
+
+    /**
+     * 取出 (from, to] 之间每一分钟到达投递时刻的时段
+     *
+     * @param from 上次检查到的时刻（不包含）
+     * @param to   本次检查到的时刻（包含）
+     * @return 到期的时段及其报告日期（时段时区的本地日期）
+     */
+    public List<Firing> due(Instant from, Instant to) {
+        List<List<DeliverySlot>> current = wheel;
+        List<Firing> firings = new ArrayList<>();
+        Instant minute = from.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+        Instant end = to.truncatedTo(ChronoUnit.MINUTES);
+        for (; !minute.isAfter(end); minute = minute.plus(1, ChronoUnit.MINUTES)) {
+            for (DeliverySlot slot : current.get(slotIndex(minute))) {
+                if (slot.firesAt(minute)) {
+                    firings.add(new Firing(slot, slot.localDate(minute)));
+                }
+            }
+        }
+        return firings;
+    }
+
+    static int slotIndex(Instant instant) {
+        return (int) Math.floorMod(instant.getEpochSecond() / 60, SLOTS);
+    }
+
+    private static void place(List<List<DeliverySlot>> wheel, DeliverySlot slot, Instant now) {
+        LocalDate today = slot.localDate(now);
+        for (LocalDate day : List.of(today, today.plusDays(1))) {
+            int index = slotIndex(slot.fireInstant(day));
+            List<DeliverySlot> bucket = wheel.get(index);
+            if (!bucket.contains(slot)) {
+                List<DeliverySlot> copy = new ArrayList<>(bucket);
+                copy.add(slot);
+                wheel.set(index, List.copyOf(copy));
+            }
+        }
+    }
+
+    private static List<List<DeliverySlot>> emptyWheel() {
+        List<List<DeliverySlot>> wheel = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.add(List.of());
+        }
+        return wheel;
+    }
+
+    /**
+     * 一次到期的投递
+     *
+     * @param slot       投递时段
+     * @param reportDate 报告日期（时段时区的本地日期）
+     */
+    public record Firing(DeliverySlot slot, LocalDate reportDate) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SSE会话生命周期管理
+ * 统一创建带截止时间的SseEmitter，定期发送心跳注释探测已断开的连接，
+ * 并在连接超时、断开或出错时取消绑定的上游AI流式订阅，浏览器关闭后模型不再继续生成。
+ */
+@Slf4j
+@Component
+public class SseSessionManager implements DisposableBean {
+
+    private static final String TIMEOUT_MESSAGE = "AI推荐超时，请稍后重试";
+
+    private final AiProperties.Session config;
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final Map<SseEmitter, Session> sessions = new ConcurrentHashMap<>();
+    private final Counter abandonedByTimeout;
+    private final Counter abandonedByDisconnect;
+
+    public SseSessionManager(AiProperties aiProperties, MeterRegistry meterRegistry) {
+        this.config = aiProperties.getSession();
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sse-heartbeat-"));
+
+        Gauge.builder("bitgain.ai.sse.active", sessions, Map::size)
+                .description("进行中的SSE会话数")
+                .register(meterRegistry);
+        this.abandonedByTimeout = Counter.builder("bitgain.ai.sse.abandoned")
+                .description("未正常结束的SSE会话数")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        this.abandonedByDisconnect = Counter.builder("bitgain.ai.sse.abandoned")
+                .description("未正常结束的SSE会话数")
+                .tag("reason", "disconnect")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 创建一个受管理的SSE连接，超过会话截止时间后自动结束
+     *
+     * @return SSE连接
+     */
+    public SseEmitter open() {
+        SseEmitter emitter = new SseEmitter(config.getSseTimeout().toMillis());
+        Session session = new Session(emitter);
+        sessions.put(emitter, session);
+
+        emitter.onTimeout(() -> session.abandon(abandonedByTimeout, TIMEOUT_MESSAGE));
+        emitter.onError(e -> session.abandon(abandonedByDisconnect, null));
+        emitter.onCompletion(session::close);
+
+        long interval = config.getHeartbeatInterval().toMillis();
+        session.heartbeat = heartbeatScheduler.scheduleAtFixedRate(
+                session::sendHeartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        return emitter;
+    }
+
+    /**
+     * 绑定连接对应的上游流式订阅，连接结束时取消订阅；连接已经结束时立即取消
+     *
+     * @param emitter      SSE连接
+     * @param subscription 上游订阅
+     */
+    public void bind(SseEmitter emitter, Disposable subscription) {
+        Session session = sessions.get(emitter);
+        if (session == null) {
+            subscription.dispose();
+            return;
+        }
+        session.subscription = subscription;
+        if (session.closed.get()) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 连接是否仍在进行中，排队期间客户端已断开的会话不必再调用AI
+     *
+     * @param emitter SSE连接
+     * @return 进行中时返回true
+     */
+    public boolean isOpen(SseEmitter emitter) {
+        Session session = sessions.get(emitter);
+        return session != null && !session.closed.get();
+    }
+
+    /**
+     * 当前进行中的SSE会话数
+     *
+     * @return 会话数
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeatScheduler.shutdownNow();
+        sessions.values().forEach(Session::close);
+    }
+
+    private final class Session {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private volatile Disposable subscription;
+        private volatile ScheduledFuture<?> heartbeat;
+
+        private Session(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void sendHeartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                // 写入失败说明对端已断开，容器不一定会回调onError
+                log.info("SSE心跳发送失败，客户端已断开: {}", e.getMessage());
+                abandon(abandonedByDisconnect, null);
+                emitter.completeWithError(e);
+            }
+        }
+
+        /**
+         * 连接超时或断开：取消上游订阅并计数，超时时尽量告知前端
+         */
+        private void abandon(Counter reason, String message) {
+            if (!release()) {
+                return;
+            }
+            reason.increment();
+            if (message != null) {
+                try {
+                    emitter.send(SseEmitter.event().name("timeout").data(message));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("发送超时消息失败: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void close() {
+            release();
+        }
+
+        private boolean release() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            sessions.remove(emitter);
+            ScheduledFuture<?> task = heartbeat;
+            if (task != null) {
+                task.cancel(false);
+            }
+            Disposable upstream = subscription;
+            if (upstream != null && !upstream.isDisposed()) {
+                upstream.dispose();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.lucius.bitgain.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * AI推荐结果的增量JSON解析器
+ * 按流式片段逐字符扫描 {"tasks":[...]} 结构，tasks数组中的任务对象一旦闭合就立即返回，
+ * 不必等待整个响应生成完毕。字符串中的括号和转义字符不参与层级判断；层级从第一个 { 开始计算，
+ * 根对象之外的文本（包括其中的括号）会被忽略；只有根对象中键为tasks的数组里的对象才作为任务返回。
+ * 每个会话使用一个实例，非线程安全。
+ */
+@Slf4j
+public class StreamingTaskParser {
+
+    /**
+     * 任务对象的父级容器层数：根对象 + tasks数组
+     */
+    private static final int TASK_CONTAINER_DEPTH = 2;
+
+    private static final String TASKS_KEY = "tasks";
+
+    private final Deque<Character> containers = new ArrayDeque<>();
+    private final StringBuilder current = new StringBuilder();
+    private boolean inString;
+    private boolean escaping;
+    /**
+     * 根对象中正在读取的字符串，以及最近一个键
+     */
+    private final StringBuilder rootString = new StringBuilder();
+    private String rootKey;
+    /**
+     * 当前的第二层容器是否是tasks数组
+     */
+    private boolean inTasks;
+
+    /**
+     * 输入一个流式片段，返回本片段中闭合的所有任务对象
+     *
+     * @param fragment AI响应片段
+     * @return 新闭合的任务对象列表，没有则为空列表
+     */
+    public List<JsonObject> feed(String fragment) {
+        List<JsonObject> completed = new ArrayList<>();
+        if (fragment == null) {
+            return completed;
+        }
+        for (int i = 0; i < fragment.length(); i++) {
+            char c = fragment.charAt(i);
+            if (isCapturing()) {
+                current.append(c);
+            }
+            if (inString) {
+                consumeStringChar(c);
+                if (inString && containers.size() == 1) {
+                    rootString.append(c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> startString();
+                case ':' -> {
+                    if (containers.size() == 1) {
+                        rootKey = rootString.toString();
+                    }
+                }
+                case ',' -> {
+                    if (containers.size() == 1) {
+                        rootKey = null;
+                    }
+                }
+                case '{', '[' -> openContainer(c);
+                case '}', ']' -> closeContainer(completed);
+                default -> {
+                }
+            }
+        }
+        return completed;
+    }
+
+    private boolean isCapturing() {
+        return inTasks && containers.size() > TASK_CONTAINER_DEPTH;
+    }
+
+    private void startString() {
+        // 根对象之外的引号不是JSON字符串
+        inString = !containers.isEmpty();
+        if (containers.size() == 1) {
+            rootString.setLength(0);
+        }
+    }
+
+    private void consumeStringChar(char c) {
+        if (escaping) {
+            escaping = false;
+        } else if (c == '\\') {
+            escaping = true;
+        } else if (c == '"') {
+            inString = false;
+        }
+    }
+
+    private void openContainer(char c) {
+        if (containers.isEmpty() && c != '{') {
+            return;
+        }
+        if (containers.isEmpty()) {
+            rootKey = null;
+        } else if (containers.size() == 1) {
+            inTasks = c == '[' && TASKS_KEY.equals(rootKey);
+        }
+        boolean taskStart = c == '{' && containers.size() == TASK_CONTAINER_DEPTH && inTasks;
+        containers.push(c);
+        if (taskStart) {
+            current.setLength(0);
+            current.append(c);
+        }
+    }
+
+    private void closeContainer(List<JsonObject> completed) {
+        if (containers.isEmpty()) {
+            return;
+        }
+        containers.pop();
+        if (containers.size() == TASK_CONTAINER_DEPTH && current.length() > 0) {
+            try {
+                completed.add(JsonParser.parseString(current.toString()).getAsJsonObject());
+            } catch (JsonParseException | IllegalStateException e) {
+                log.warn("跳过无法解析的任务对象: {}", current);
+            }
+            current.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.lucius.bitgain.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.mapper.FixedTaskMapper;
+import com.lucius.bitgain.mapper.UserMapper;
+import com.lucius.bitgain.properties.ScheduleProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 固定任务时间冲突校验器
+ * 为每个用户缓存一份有效固定任务的区间索引，索引按开始时间有序，并记录最长的任务时长D：
+ * 与 [start, end) 重叠的任务开始时间必然落在 (start - D, end) 内，一次查询只需O(log n)定位加上遍历该范围。
+ * 索引只加载当天0点之后才结束的任务，更早的时间段直接查询数据库。
+ * 多实例部署时以 user.schedule_version 判断索引是否过期：任何节点修改有效任务时在同一事务中递增版本号，
+ * 校验时先按主键读取版本号，与索引不一致时从数据库重新加载。冲突口径与SQL一致：start_time < end AND end_time > start。
+ */
+@Component
+public class TimeConflictValidator {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final FixedTaskMapper fixedTaskMapper;
+    private final UserMapper userMapper;
+    private final Clock clock;
+    private final Cache<Long, UserTaskIndex> indexes;
+
+    @Autowired
+    public TimeConflictValidator(FixedTaskMapper fixedTaskMapper,
+                                 UserMapper userMapper,
+                                 ScheduleProperties scheduleProperties,
+                                 MeterRegistry meterRegistry) {
+        this(fixedTaskMapper, userMapper, scheduleProperties, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    TimeConflictValidator(FixedTaskMapper fixedTaskMapper,
+                          UserMapper userMapper,
+                          ScheduleProperties scheduleProperties,
+                          MeterRegistry meterRegistry,
+                          Clock clock) {
+        this.fixedTaskMapper = fixedTaskMapper;
+        this.userMapper = userMapper;
+        this.clock = clock;
+        ScheduleProperties.ConflictIndex config = scheduleProperties.getConflictIndex();
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(config.getMaxUsers())
+                .expireAfterAccess(config.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "fixed.task.conflict.index");
+    }
+
+    /**
+     * 查询与指定时间段冲突的有效固定任务
+     *
+     * @param userId    用户ID
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @param excludeId 排除的任务ID（更新时传入任务自身ID，新增时传null）
+     * @return 冲突的任务，按开始时间升序
+     */
+    public List<FixedTask> findConflicts(Long userId, LocalDateTime startTime, LocalDateTime endTime, Long excludeId) {
+        Long version = userMapper.getScheduleVersion(userId);
+        UserTaskIndex index = version == null ? null : index(userId, version);
+        if (index == null || startTime.isBefore(index.windowStart)) {
+            return fixedTaskMapper.selectByUserIdAndTimeRange(userId, startTime, endTime).stream()
+                    .filter(task -> !task.getId().equals(excludeId))
+                    .toList();
+        }
+        return index.findOverlapping(startTime, endTime, excludeId);
+    }
+
+    /**
+     * 用户的有效任务发生变化（新增、修改、删除、启用草稿）后调用，须与修改在同一事务中执行，
+     * 递增版本号使所有节点上的索引在下一次校验时重新加载
+     *
+     * @param userId 用户ID
+     */
+    public void onTasksChanged(Long userId) {
+        userMapper.increaseScheduleVersion(userId);
+    }
+
+    /**
+     * 判断任务是否与指定时间段重叠
+     */
+    public static boolean overlaps(FixedTask task, LocalDateTime startTime, LocalDateTime endTime) {
+        return task.getStartTime().isBefore(endTime) && task.getEndTime().isAfter(startTime);
+    }
+
+    /**
+     * 将冲突任务格式化为提示文本，例如：晨间锻炼(07:00-08:00)、开会(09:00-10:00)
+     */
+    public static String describe(List<FixedTask> conflicts) {
+        return conflicts.stream()
+                .map(task -> task.getTitle() + "(" + task.getStartTime().format(TIME_FORMATTER)
+                        + "-" + task.getEndTime().format(TIME_FORMATTER) + ")")
+                .collect(Collectors.joining("、"));
+    }
+
+    /**
+     * 取版本号一致的索引，不一致时重新加载
+     * 先读版本号再读任务：两次读取之间其他节点提交的修改只会让索引比版本号新，下一次校验时同样会重新加载
+     */
+    private UserTaskIndex index(Long userId, long version) {
+        UserTaskIndex cached = indexes.getIfPresent(userId);
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+        LocalDateTime windowStart = LocalDate.now(clock).atStartOfDay();
+        UserTaskIndex loaded = new UserTaskIndex(version, windowStart,
+                fixedTaskMapper.selectByUserIdEndingAfter(userId, windowStart));
+        // 并发加载时保留版本号更新的索引
+        return indexes.asMap().merge(userId, loaded,
+                (current, candidate) -> current.version > candidate.version ? current : candidate);
+    }
+
+    /**
+     * 单个用户的任务区间索引，加载后不再修改
+     */
+    static final class UserTaskIndex {
+
+        private static final Comparator<FixedTask> BY_START = Comparator
+                .comparing(FixedTask::getStartTime)
+                .thenComparing(FixedTask::getId);
+
+        private final long version;
+        private final LocalDateTime windowStart;
+        private final NavigableSet<FixedTask> byStart = new TreeSet<>(BY_START);
+        private Duration maxDuration = Duration.ZERO;
+
+        UserTaskIndex(long version, LocalDateTime windowStart, List<FixedTask> tasks) {
+            this.version = version;
+            this.windowStart = windowStart;
+            for (FixedTask task : tasks) {
+                if (task.getStartTime() == null || task.getEndTime() == null) {
+                    continue;
+                }
+                byStart.add(task);
+                Duration duration = Duration.between(task.getStartTime(), task.getEndTime());
+                if (duration.compareTo(maxDuration) > 0) {
+                    maxDuration = duration;
+                }
+            }
+        }
+
+        List<FixedTask> findOverlapping(LocalDateTime startTime, LocalDateTime endTime, Long excludeId) {
+            List<FixedTask> overlapping = new ArrayList<>();
+            LocalDateTime earliestStart = startTime.minus(maxDuration);
+            if (byStart.isEmpty() || !earliestStart.isBefore(endTime)) {
+                return overlapping;
+            }
+            for (FixedTask task : byStart.subSet(probe(earliestStart), true, probe(endTime), false)) {
+                if (task.getEndTime().isAfter(startTime) && !task.getId().equals(excludeId)) {
+                    overlapping.add(task);
+                }
+            }
+            return overlapping;
+        }
+
+        private static FixedTask probe(LocalDateTime startTime) {
+            return FixedTask.builder().startTime(startTime).id(Long.MIN_VALUE).build();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lucius.bitgain.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶限流器
+ * 令牌按固定速率补充，桶中最多保留burst个令牌。一次申请多个令牌时允许预支：
+ * 当前调用只需等待之前调用预支的令牌补足，本次欠下的令牌由下一次调用等待，平均速率始终不超过设定值。
+ * 线程安全，等待在锁外进行。
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private final LongSupplier nanoClock;
+    private double storedPermits;
+    private long lastRefillNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("令牌速率和桶容量必须大于0");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxPermits = burst;
+        this.nanoClock = nanoClock;
+        this.storedPermits = burst;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.nextFreeNanos = lastRefillNanos;
+    }
+
+    /**
+     * 申请令牌，令牌不足时阻塞等待
+     *
+     * @param permits 令牌数
+     * @throws InterruptedException 等待时被中断
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 预留令牌并返回需要等待的时间
+     *
+     * @param permits 令牌数
+     * @return 需要等待的纳秒数
+     */
+    synchronized long reserve(int permits) {
+        long now = nanoClock.getAsLong();
+        if (now > lastRefillNanos) {
+            storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+        }
+        long waitNanos = Math.max(0, nextFreeNanos - now);
+
+        double fromStore = Math.min(permits, storedPermits);
+        storedPermits -= fromStore;
+        double owed = permits - fromStore;
+        // 预支的令牌推迟下一次调用的可用时间
+        long start = Math.max(nextFreeNanos, now);
+        nextFreeNanos = start + (long) Math.ceil(owed / permitsPerNano);
+        if (owed > 0) {
+            lastRefillNanos = nextFreeNanos;
+        }
+        return waitNanos;
+    }
+}
@@ -0,0 +1,62 @@
+package com.lucius.bitgain.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页视图对象
+ * 按 (时间, ID) 做键集分页，下一页请求带上本页返回的 nextCursorTime 和 nextCursorId。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "游标分页结果")
+public class CursorPageVO<T> {
+
+    @Schema(description = "本页数据")
+    private List<T> records;
+
+    @Schema(description = "是否还有下一页", example = "true")
+    private Boolean hasMore;
+
+    @Schema(description = "下一页游标时间，没有下一页时为null", example = "2024-01-15T07:00:00")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime nextCursorTime;
+
+    @Schema(description = "下一页游标ID，没有下一页时为null", example = "1")
+    private Long nextCursorId;
+
+    /**
+     * 由多查询一条的结果构建分页对象
+     *
+     * @param rows    按游标顺序查询出的记录，最多 size + 1 条
+     * @param size    每页条数
+     * @param timeOf  记录的游标时间
+     * @param idOf    记录的游标ID
+     * @param convert 记录到视图对象的转换
+     * @return 分页对象
+     */
+    public static <E, T> CursorPageVO<T> of(List<E> rows, int size,
+                                            Function<E, LocalDateTime> timeOf,
+                                            Function<E, Long> idOf,
+                                            Function<E, T> convert) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        E last = hasMore ? page.get(page.size() - 1) : null;
+        return CursorPageVO.<T>builder()
+                .records(page.stream().map(convert).toList())
+                .hasMore(hasMore)
+                .nextCursorTime(last != null ? timeOf.apply(last) : null)
+                .nextCursorId(last != null ? idOf.apply(last) : null)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.lucius.bitgain.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 空闲时间段视图对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "空闲时间段")
+public class FreeTimeSlotVO {
+
+    @Schema(description = "开始时间", example = "2024-01-15T08:00:00.000Z")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private LocalDateTime startTime;
+
+    @Schema(description = "结束时间", example = "2024-01-15T09:30:00.000Z")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private LocalDateTime endTime;
+
+    @Schema(description = "时长（分钟）", example = "90")
+    private Long durationMinutes;
+}
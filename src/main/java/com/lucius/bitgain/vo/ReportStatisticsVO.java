@@ -0,0 +1,36 @@
+package com.lucius.bitgain.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 日报统计数据视图对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "日报统计数据")
+public class ReportStatisticsVO {
+
+    @Schema(description = "今日目标数", example = "3")
+    private Integer goalCount;
+
+    @Schema(description = "今日任务数", example = "5")
+    private Integer taskCount;
+
+    @Schema(description = "已完成任务数", example = "4")
+    private Integer completedCount;
+
+    @Schema(description = "待完成任务数", example = "1")
+    private Integer pendingCount;
+
+    @Schema(description = "已放弃任务数", example = "0")
+    private Integer abandonedCount;
+
+    @Schema(description = "任务完成率（百分比）", example = "80.0")
+    private Double completionRate;
+}
@@ -0,0 +1,48 @@
+package com.lucius.bitgain.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 报告视图对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "报告信息")
+public class ReportVO {
+
+    @Schema(description = "报告ID", example = "1")
+    private Long id;
+
+    @Schema(description = "报告类型：daily-日报，weekly-周报", example = "daily")
+    private String reportType;
+
+    @Schema(description = "报告日期", example = "2024-01-15")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate reportDate;
+
+    @Schema(description = "报告标题", example = "每日总结报告 - 2024-01-15")
+    private String title;
+
+    @Schema(description = "报告HTML内容，列表查询时不返回")
+    private String content;
+
+    @Schema(description = "统计数据")
+    private ReportStatisticsVO statistics;
+
+    @Schema(description = "是否已发送邮件", example = "true")
+    private Boolean emailSent;
+
+    @Schema(description = "创建时间", example = "2024-01-15T20:00:00.000Z")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "UTC")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,57 @@
+package com.lucius.bitgain.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 推荐任务操作结果视图对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "推荐任务操作结果")
+public class TaskActionResultVO {
+
+    /**
+     * 已启用
+     */
+    public static final String COMMITTED = "committed";
+
+    /**
+     * 已删除
+     */
+    public static final String REJECTED = "rejected";
+
+    /**
+     * 任务不存在或已处理
+     */
+    public static final String NOT_FOUND = "not_found";
+
+    /**
+     * 操作类型不合法或同一任务重复提交
+     */
+    public static final String SKIPPED = "skipped";
+
+    /**
+     * 与已有固定任务时间冲突，未启用
+     */
+    public static final String CONFLICT = "conflict";
+
+    @Schema(description = "任务ID", example = "101")
+    private Long taskId;
+
+    @Schema(description = "请求的操作类型", example = "commit")
+    private String action;
+
+    @Schema(description = "处理结果：committed-已启用，rejected-已删除，not_found-不存在或已处理，skipped-操作无效或重复，conflict-时间冲突未启用", example = "committed")
+    private String outcome;
+
+    @Schema(description = "冲突的任务ID，仅当outcome为conflict时返回", example = "[12]")
+    private List<Long> conflictTaskIds;
+}
@@ -55,4 +55,16 @@ public class UserInfoVO {
      */
     @Schema(description = "邮件订阅开关", example = "1")
     private Integer emailSubscribe;
+
+    /**
+     * 用户时区
+     */
+    @Schema(description = "用户时区（IANA时区ID）", example = "Asia/Shanghai")
+    private String timezone;
+
+    /**
+     * 日报投递时间
+     */
+    @Schema(description = "日报投递时间（本地小时，0-23）", example = "20")
+    private Integer deliveryHour;
 }
\ No newline at end of file
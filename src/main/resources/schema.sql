@@ -10,6 +10,8 @@ create table user
     skills          text                                 null comment '技能标签，逗号分隔',
     goals           text                                 null comment '提升目标',
     email_subscribe tinyint(1) default 1                 not null comment '邮件订阅开关：0-关闭，1-开启',
+    timezone        varchar(64) default 'Asia/Shanghai' not null comment '用户时区（IANA时区ID）',
+    delivery_hour   tinyint    default 20                not null comment '日报投递时间（用户本地小时，0-23）',
     create_time     datetime   default CURRENT_TIMESTAMP not null comment '创建时间',
     update_time     datetime   default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
     deleted         tinyint(1) default 0                 not null comment '软删除标记：0-未删除，1-已删除',
@@ -28,6 +30,9 @@ create index idx_phone
 
 create index idx_profession
     on user (profession);
+
+create index idx_subscribe_delivery
+    on user (email_subscribe, timezone, delivery_hour, id);
 -- =====================================================
 -- 碎时拾光 - 测试用户数据
 -- 生成200个测试用户的INSERT语句
@@ -263,5 +268,6 @@ create table today_goal(
     user_id bigint not null,
     goal text not null,
     create_time datetime not null default current_timestamp,
-    update_time datetime not null default current_timestamp on update current_timestamp
+    update_time datetime not null default current_timestamp on update current_timestamp,
+    key idx_user_create_time (user_id, create_time)
 )
\ No newline at end of file
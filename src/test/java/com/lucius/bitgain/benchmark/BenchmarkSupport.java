@@ -0,0 +1,73 @@
+package com.lucius.bitgain.benchmark;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.util.Arrays;
+
+/**
+ * 基准测试公共工具
+ * 基准测试需要真实的MySQL，通过 -Dbench.jdbc.url=... 开启，例如：
+ * mvn test -Dtest=FixedTaskInsertBenchmark -Dbench.jdbc.url=jdbc:mysql://localhost:3306/bitgain -Dbench.jdbc.password=123456
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 按系统属性创建只注册指定Mapper的SqlSessionFactory
+     *
+     * @param poolSize 连接池大小
+     * @param mappers  需要注册的Mapper
+     * @return SqlSessionFactory
+     */
+    static SqlSessionFactory sqlSessionFactory(int poolSize, Class<?>... mappers) {
+        PooledDataSource dataSource = new PooledDataSource(
+                System.getProperty("bench.jdbc.driver", "com.mysql.cj.jdbc.Driver"),
+                System.getProperty("bench.jdbc.url"),
+                System.getProperty("bench.jdbc.username", "root"),
+                System.getProperty("bench.jdbc.password", ""));
+        dataSource.setPoolMaximumActiveConnections(poolSize);
+        dataSource.setPoolMaximumIdleConnections(poolSize);
+
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        Arrays.stream(mappers).forEach(configuration::addMapper);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    static long longProperty(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * 输出耗时分布
+     *
+     * @param name        场景名称
+     * @param latencies   每次操作耗时（纳秒）
+     * @param totalMillis 总耗时（毫秒）
+     */
+    static void report(String name, long[] latencies, long totalMillis) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-28s total=%dms throughput=%.1f ops/s p50=%.2fms p99=%.2fms max=%.2fms%n",
+                name, totalMillis,
+                sorted.length * 1000.0 / Math.max(totalMillis, 1),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,122 @@
+package com.lucius.bitgain.benchmark;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.mapper.FixedTaskMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * AI推荐任务落库方式对比：逐条insert vs 单条多值insertBatch
+ * 同时发起 bench.recommendations（默认1000）次推荐，每次推荐 bench.tasks-per-recommendation（默认4）个任务。
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc.url", matches = ".+")
+class FixedTaskInsertBenchmark {
+
+    private static final String TITLE_PREFIX = "bench-insert-";
+
+    private static SqlSessionFactory sqlSessionFactory;
+    private static long userId;
+    private static int recommendations;
+    private static int tasksPerRecommendation;
+    private static int threads;
+
+    @BeforeAll
+    static void setUp() {
+        threads = BenchmarkSupport.intProperty("bench.threads", 64);
+        recommendations = BenchmarkSupport.intProperty("bench.recommendations", 1000);
+        tasksPerRecommendation = BenchmarkSupport.intProperty("bench.tasks-per-recommendation", 4);
+        userId = BenchmarkSupport.longProperty("bench.user-id", 1L);
+        sqlSessionFactory = BenchmarkSupport.sqlSessionFactory(threads, FixedTaskMapper.class);
+    }
+
+    @AfterAll
+    static void cleanUp() throws Exception {
+        try (SqlSession session = sqlSessionFactory.openSession(true);
+             Connection connection = session.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM fixed_task WHERE user_id = ? AND title LIKE ?")) {
+            statement.setLong(1, userId);
+            statement.setString(2, TITLE_PREFIX + "%");
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    void compareInsertStrategies() throws Exception {
+        // 预热连接池和语句缓存
+        run("warm-up", 50, tasks -> withMapper(mapper -> mapper.insertBatch(tasks)));
+
+        run("insert per task (autocommit)", recommendations, tasks -> withMapper(mapper -> tasks.forEach(mapper::insert)));
+        run("insertBatch (one statement)", recommendations, tasks -> withMapper(mapper -> mapper.insertBatch(tasks)));
+    }
+
+    private void run(String name, int count, Consumer<List<FixedTask>> persist) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] latencies = new long[count];
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                List<FixedTask> tasks = recommendation(index);
+                start.await();
+                long begin = System.nanoTime();
+                persist.accept(tasks);
+                latencies[index] = System.nanoTime() - begin;
+                assertNotNull(tasks.get(0).getId());
+                return null;
+            }));
+        }
+        long begin = System.currentTimeMillis();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long totalMillis = System.currentTimeMillis() - begin;
+        pool.shutdown();
+        BenchmarkSupport.report(name, latencies, totalMillis);
+    }
+
+    private void withMapper(Consumer<FixedTaskMapper> action) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            action.accept(session.getMapper(FixedTaskMapper.class));
+        }
+    }
+
+    private List<FixedTask> recommendation(int index) {
+        LocalDateTime base = LocalDate.now().atTime(9, 0);
+        List<FixedTask> tasks = new ArrayList<>(tasksPerRecommendation);
+        for (int i = 0; i < tasksPerRecommendation; i++) {
+            tasks.add(FixedTask.builder()
+                    .userId(userId)
+                    .title(TITLE_PREFIX + index + "-" + i)
+                    .description("benchmark")
+                    .startTime(base.plusHours(i))
+                    .endTime(base.plusHours(i).plusMinutes(30))
+                    .status("0")
+                    .deleted(1)
+                    .createTime(LocalDateTime.now())
+                    .updateTime(LocalDateTime.now())
+                    .build());
+        }
+        return tasks;
+    }
+}
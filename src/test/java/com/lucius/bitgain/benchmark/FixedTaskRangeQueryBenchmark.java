@@ -0,0 +1,184 @@
+package com.lucius.bitgain.benchmark;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.mapper.FixedTaskMapper;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 固定任务时间范围查询基准测试：原三分支OR条件 vs 单一区间重叠条件
+ * 为 bench.user-id 预置 bench.range.rows（默认100万）条历史任务（约10%为软删除），
+ * 随机抽取 bench.range.queries（默认10000）个日期查询当天任务，两种写法结果必须一致。
+ * 预置数据会保留以便重复运行，指定 -Dbench.range.cleanup=true 时在结束后删除。
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc.url", matches = ".+")
+class FixedTaskRangeQueryBenchmark {
+
+    private static final String TITLE_PREFIX = "bench-range-";
+    private static final int TASKS_PER_DAY = 16;
+    private static final int CHUNK_SIZE = 1000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+
+    private static final String LEGACY_SQL = "SELECT COUNT(*) FROM fixed_task WHERE user_id = ? AND deleted = 0 " +
+            "AND ((start_time >= ? AND start_time < ?) " +
+            "OR (end_time > ? AND end_time <= ?) " +
+            "OR (start_time < ? AND end_time > ?))";
+
+    private static SqlSessionFactory sqlSessionFactory;
+    private static long userId;
+    private static int rows;
+    private static int queries;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        userId = BenchmarkSupport.longProperty("bench.user-id", 1L);
+        rows = BenchmarkSupport.intProperty("bench.range.rows", 1_000_000);
+        queries = BenchmarkSupport.intProperty("bench.range.queries", 10_000);
+        sqlSessionFactory = BenchmarkSupport.sqlSessionFactory(4, FixedTaskMapper.class);
+        seed();
+    }
+
+    @AfterAll
+    static void cleanUp() throws Exception {
+        if (!Boolean.getBoolean("bench.range.cleanup")) {
+            return;
+        }
+        try (SqlSession session = sqlSessionFactory.openSession(true);
+             PreparedStatement statement = session.getConnection().prepareStatement(
+                     "DELETE FROM fixed_task WHERE user_id = ? AND title LIKE ?")) {
+            statement.setLong(1, userId);
+            statement.setString(2, TITLE_PREFIX + "%");
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    void compareRangeQueries() throws Exception {
+        int days = rows / TASKS_PER_DAY;
+        Random random = new Random(42);
+        LocalDate[] sample = new LocalDate[queries];
+        for (int i = 0; i < queries; i++) {
+            sample[i] = FIRST_DAY.plusDays(random.nextInt(days));
+        }
+
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            FixedTaskMapper mapper = session.getMapper(FixedTaskMapper.class);
+            Connection connection = session.getConnection();
+            try (PreparedStatement legacy = connection.prepareStatement(LEGACY_SQL)) {
+                // 预热并校验两种写法结果一致
+                for (int i = 0; i < Math.min(queries, 200); i++) {
+                    LocalDateTime start = sample[i].atStartOfDay();
+                    LocalDateTime end = start.plusDays(1);
+                    assertEquals(legacyCount(legacy, start, end),
+                            mapper.selectByUserIdAndTimeRange(userId, start, end).size(),
+                            "两种查询结果不一致: " + sample[i]);
+                }
+
+                long[] legacyLatencies = new long[queries];
+                long begin = System.currentTimeMillis();
+                for (int i = 0; i < queries; i++) {
+                    LocalDateTime start = sample[i].atStartOfDay();
+                    long queryBegin = System.nanoTime();
+                    legacyCount(legacy, start, start.plusDays(1));
+                    legacyLatencies[i] = System.nanoTime() - queryBegin;
+                }
+                BenchmarkSupport.report("three-branch OR", legacyLatencies, System.currentTimeMillis() - begin);
+            }
+
+            long[] latencies = new long[queries];
+            long begin = System.currentTimeMillis();
+            for (int i = 0; i < queries; i++) {
+                LocalDateTime start = sample[i].atStartOfDay();
+                long queryBegin = System.nanoTime();
+                mapper.selectByUserIdAndTimeRange(userId, start, start.plusDays(1));
+                latencies[i] = System.nanoTime() - queryBegin;
+            }
+            BenchmarkSupport.report("single-range overlap", latencies, System.currentTimeMillis() - begin);
+        }
+    }
+
+    private static int legacyCount(PreparedStatement statement, LocalDateTime start, LocalDateTime end) throws Exception {
+        Timestamp from = Timestamp.valueOf(start);
+        Timestamp to = Timestamp.valueOf(end);
+        statement.setLong(1, userId);
+        statement.setTimestamp(2, from);
+        statement.setTimestamp(3, to);
+        statement.setTimestamp(4, from);
+        statement.setTimestamp(5, to);
+        statement.setTimestamp(6, from);
+        statement.setTimestamp(7, to);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * 预置历史任务，已存在足够数据时跳过
+     */
+    private static void seed() throws Exception {
+        int existing;
+        try (SqlSession session = sqlSessionFactory.openSession(true);
+             PreparedStatement statement = session.getConnection().prepareStatement(
+                     "SELECT COUNT(*) FROM fixed_task WHERE user_id = ? AND title LIKE ?")) {
+            statement.setLong(1, userId);
+            statement.setString(2, TITLE_PREFIX + "%");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                existing = resultSet.getInt(1);
+            }
+        }
+        if (existing >= rows) {
+            return;
+        }
+
+        long begin = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)) {
+            FixedTaskMapper mapper = session.getMapper(FixedTaskMapper.class);
+            List<FixedTask> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = existing; i < rows; i++) {
+                LocalDateTime start = FIRST_DAY.plusDays(i / TASKS_PER_DAY).atTime(6, 0).plusMinutes(60L * (i % TASKS_PER_DAY));
+                chunk.add(FixedTask.builder()
+                        .userId(userId)
+                        .title(TITLE_PREFIX + i)
+                        .description("benchmark")
+                        .startTime(start)
+                        // 每天最后一个任务跨过零点，覆盖任务跨越查询边界的情形
+                        .endTime(start.plusMinutes(i % TASKS_PER_DAY == TASKS_PER_DAY - 1 ? 240 : 45))
+                        .status("pending")
+                        .deleted(i % 10 == 0 ? 1 : 0)
+                        .createTime(now)
+                        .updateTime(now)
+                        .build());
+                if (chunk.size() == CHUNK_SIZE) {
+                    mapper.insertBatch(chunk);
+                    session.commit();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                mapper.insertBatch(chunk);
+                session.commit();
+            }
+        }
+        System.out.printf("seeded %d rows in %dms%n", rows - existing, System.currentTimeMillis() - begin);
+    }
+}
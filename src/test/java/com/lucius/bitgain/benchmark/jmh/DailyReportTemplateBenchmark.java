@@ -0,0 +1,102 @@
+package com.lucius.bitgain.benchmark.jmh;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.entity.TodayGoal;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.utils.DailyReportTemplate;
+import com.lucius.bitgain.vo.ReportStatisticsVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日报HTML渲染微基准：原StringBuilder逐段拼接 vs 启动时预编译的模板
+ * 输出每秒渲染的报告数（ops/s）和每份报告的分配字节数（gc.alloc.rate.norm），运行方式：
+ * mvn test -Dtest=DailyReportTemplateBenchmarkRunner -Dbench.jmh=true
+ * 数据规模与线上典型用户一致：5个今日目标、12个固定任务。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DailyReportTemplateBenchmark {
+
+    private static final String[] STATUSES = {"completed", "pending", "abandoned", "completed"};
+
+    private DailyReportTemplate template;
+    private User user;
+    private LocalDate reportDate;
+    private List<TodayGoal> goals;
+    private List<FixedTask> tasks;
+    private ReportStatisticsVO statistics;
+
+    @Setup
+    public void setUp() {
+        template = new DailyReportTemplate();
+        reportDate = LocalDate.of(2024, 1, 20);
+        user = new User();
+        user.setId(1L);
+        user.setUsername("bench-user");
+        user.setProfession("后端开发工程师");
+        user.setGoals("提升系统设计能力，掌握分布式架构");
+
+        goals = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            goals.add(TodayGoal.builder().id((long) i).userId(1L).goal("完成第" + (i + 1) + "个学习目标").build());
+        }
+        tasks = new ArrayList<>();
+        int completed = 0;
+        for (int i = 0; i < 12; i++) {
+            LocalDateTime start = reportDate.atTime(8 + i, 0);
+            String status = STATUSES[i % STATUSES.length];
+            completed += "completed".equals(status) ? 1 : 0;
+            tasks.add(FixedTask.builder()
+                    .id((long) i)
+                    .userId(1L)
+                    .title("固定任务" + (i + 1))
+                    .description(i % 3 == 0 ? null : "任务描述" + (i + 1))
+                    .startTime(start)
+                    .endTime(start.plusMinutes(45))
+                    .status(status)
+                    .build());
+        }
+        statistics = ReportStatisticsVO.builder()
+                .goalCount(goals.size())
+                .taskCount(tasks.size())
+                .completedCount(completed)
+                .pendingCount(3)
+                .abandonedCount(3)
+                .completionRate((double) completed / tasks.size() * 100)
+                .build();
+
+        // 两种实现的输出必须一致，否则对比没有意义
+        if (!legacy().equals(template())) {
+            throw new IllegalStateException("预编译模板与原实现的输出不一致");
+        }
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyDailyReportRenderer.render(user, reportDate, goals, tasks);
+    }
+
+    @Benchmark
+    public String template() {
+        return template.render(user, reportDate, goals, tasks, statistics);
+    }
+}
@@ -0,0 +1,26 @@
+package com.lucius.bitgain.benchmark.jmh;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * DailyReportTemplateBenchmark的JUnit启动入口，默认不执行
+ * 入口不能放在@State基准类上：JMH为基准类生成的jmh_generated子类会继承测试方法，
+ * 被JUnit当作额外的测试类发现，开启基准时还会重复运行。
+ */
+class DailyReportTemplateBenchmarkRunner {
+
+    @Test
+    @EnabledIfSystemProperty(named = "bench.jmh", matches = "true")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(DailyReportTemplateBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-cp", System.getProperty("java.class.path"))
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,145 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AiCallGuardTest {
+
+    private static final ChatClientRequest REQUEST = new ChatClientRequest(new Prompt("hi"), Map.of());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void streamPastDeadlineFailsWithTimeout() {
+        AiCallGuard guard = guard(1, Duration.ofMillis(100));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> guard.adviseStream(REQUEST, streamChain(Flux::never)).collectList().block());
+
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(error));
+        assertEquals(0, guard.getConcurrentCalls());
+        assertEquals(1, count("timeout"));
+    }
+
+    @Test
+    void callPastDeadlineIsInterruptedAndReleasesItsSlot() throws InterruptedException {
+        AiCallGuard guard = guard(1, Duration.ofMillis(100));
+        CallAdvisorChain chain = callChain(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> guard.adviseCall(REQUEST, chain));
+
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        // 调用线程被中断后归还并发名额
+        for (int i = 0; i < 50 && guard.getConcurrentCalls() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, guard.getConcurrentCalls());
+        guard.destroy();
+    }
+
+    @Test
+    void failuresOpenTheCircuitAndLaterCallsFailFast() {
+        AiCallGuard guard = guard(4, Duration.ofSeconds(5));
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        StreamAdvisorChain chain = streamChain(() -> {
+            upstreamCalls.incrementAndGet();
+            return Flux.error(new IllegalStateException("503"));
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.adviseStream(REQUEST, chain).blockLast());
+        }
+        assertEquals(AiCircuitBreaker.State.OPEN, guard.getState());
+
+        assertThrows(RejectedExecutionException.class, () -> guard.adviseStream(REQUEST, chain).blockLast());
+        assertEquals(4, upstreamCalls.get());
+        assertEquals(1, count("short_circuited"));
+    }
+
+    @Test
+    void bulkheadRejectsBeyondMaxConcurrentAndCancellationIsNotAFailure() {
+        AiCallGuard guard = guard(1, Duration.ofSeconds(5));
+        StreamAdvisorChain chain = streamChain(Flux::never);
+
+        Disposable first = guard.adviseStream(REQUEST, chain).subscribe();
+        assertEquals(1, guard.getConcurrentCalls());
+        assertThrows(RejectedExecutionException.class, () -> guard.adviseStream(REQUEST, chain).blockLast());
+        assertEquals(1, count("bulkhead_full"));
+
+        first.dispose();
+        assertEquals(0, guard.getConcurrentCalls());
+        assertEquals(1, count("cancelled"));
+        assertEquals(AiCircuitBreaker.State.CLOSED, guard.getState());
+    }
+
+    private AiCallGuard guard(int maxConcurrent, Duration deadline) {
+        AiProperties.Resilience config = new AiProperties.Resilience();
+        config.setMaxConcurrent(maxConcurrent);
+        config.setDeadline(deadline);
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        return new AiCallGuard("test", config, meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("bitgain.ai.client.calls").tag("outcome", outcome).counter().count();
+    }
+
+    private static StreamAdvisorChain streamChain(Supplier<Flux<ChatClientResponse>> upstream) {
+        return new StreamAdvisorChain() {
+            @Override
+            public Flux<ChatClientResponse> nextStream(ChatClientRequest request) {
+                return upstream.get();
+            }
+
+            @Override
+            public List<StreamAdvisor> getStreamAdvisors() {
+                return List.of();
+            }
+        };
+    }
+
+    private static CallAdvisorChain callChain(Supplier<ChatClientResponse> upstream) {
+        return new CallAdvisorChain() {
+            @Override
+            public ChatClientResponse nextCall(ChatClientRequest request) {
+                return upstream.get();
+            }
+
+            @Override
+            public List<CallAdvisor> getCallAdvisors() {
+                return List.of();
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.lucius.bitgain.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AiCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void opensOnceFailureRateReachesThresholdWithinWindow() {
+        AiCircuitBreaker breaker = breaker();
+
+        // 不足最少调用数时不计算失败率
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquire().onFailure();
+        }
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.tryAcquire().onSuccess();
+        assertEquals(AiCircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void oldResultsLeaveTheSlidingWindow() {
+        AiCircuitBreaker breaker = breaker();
+        breaker.tryAcquire().onFailure();
+        for (int i = 0; i < 5; i++) {
+            breaker.tryAcquire().onSuccess();
+        }
+        // 窗口大小6：此后第一次失败把最早的失败挤出窗口，失败率保持1/6
+        breaker.tryAcquire().onFailure();
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.tryAcquire().onFailure();
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.tryAcquire().onFailure();
+        assertEquals(AiCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopen() {
+        AiCircuitBreaker breaker = breaker();
+        open(breaker);
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(AiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        AiCircuitBreaker.Permit first = breaker.tryAcquire();
+        AiCircuitBreaker.Permit second = breaker.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        // 试探名额用完后继续拒绝
+        assertNull(breaker.tryAcquire());
+
+        first.onSuccess();
+        second.onFailure();
+        assertEquals(AiCircuitBreaker.State.OPEN, breaker.getState());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        breaker.tryAcquire().onSuccess();
+        breaker.tryAcquire().onSuccess();
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void releasedAndStalePermitsDoNotCount() {
+        AiCircuitBreaker breaker = breaker();
+        AiCircuitBreaker.Permit stale = breaker.tryAcquire();
+        open(breaker);
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        AiCircuitBreaker.Permit trial = breaker.tryAcquire();
+        // 熔断打开前发出的许可在半开状态下报告结果无效
+        stale.onFailure();
+        assertEquals(AiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // 被取消的试探调用归还名额，重复报告无效
+        trial.release();
+        trial.onFailure();
+        assertEquals(AiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    private AiCircuitBreaker breaker() {
+        return new AiCircuitBreaker("test", 6, 4, 50, Duration.ofSeconds(30), 2, clock::get);
+    }
+
+    private static void open(AiCircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire().onFailure();
+        }
+        assertEquals(AiCircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
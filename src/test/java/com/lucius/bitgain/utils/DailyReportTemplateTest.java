@@ -0,0 +1,65 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.vo.ReportStatisticsVO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailyReportTemplateTest {
+
+    private final DailyReportTemplate template = new DailyReportTemplate();
+
+    @Test
+    void rendersEmptyDay() {
+        User user = new User();
+        user.setUsername("lucius");
+
+        String html = template.render(user, LocalDate.of(2024, 1, 20), List.of(), List.of(),
+                ReportStatisticsVO.builder().taskCount(0).completionRate(0.0).build());
+
+        assertTrue(html.startsWith("<html><head><meta charset='UTF-8'></head>"));
+        assertTrue(html.contains(">2024-01-20</p>"));
+        assertTrue(html.contains("亲爱的 <strong>lucius</strong>"));
+        assertTrue(html.contains("今日暂无设定目标"));
+        assertTrue(html.contains("今日暂无安排任务"));
+        assertFalse(html.contains("个人信息"));
+        assertTrue(html.endsWith("</body></html>"));
+    }
+
+    @Test
+    void escapesUserContent() {
+        User user = new User();
+        user.setUsername("<b>lucius</b>");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 20, 9, 0);
+        FixedTask task = FixedTask.builder()
+                .title("读'Effective Java' & 写笔记")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status("completed")
+                .build();
+
+        String html = template.render(user, LocalDate.of(2024, 1, 20), List.of(), List.of(task),
+                ReportStatisticsVO.builder().taskCount(1).completedCount(1).pendingCount(0)
+                        .abandonedCount(0).completionRate(100.0).build());
+
+        assertTrue(html.contains("&lt;b&gt;lucius&lt;/b&gt;"));
+        assertTrue(html.contains("读&#39;Effective Java&#39; &amp; 写笔记"));
+        assertTrue(html.contains("时间: 09:00 - 10:00"));
+        assertTrue(html.contains("完成率为 <strong>100.0%</strong>"));
+    }
+
+    @Test
+    void formatsRateWithOneDecimal() {
+        assertEquals("66.7", DailyReportTemplate.formatRate(200.0 / 3));
+        assertEquals("0.0", DailyReportTemplate.formatRate(0));
+        assertEquals("12.3", DailyReportTemplate.formatRate(12.25));
+    }
+}
@@ -0,0 +1,69 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.properties.ReportProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeliveryWindowTest {
+
+    @Test
+    void assignsStableOffsetsInsideWindow() {
+        DeliveryWindow window = window(Duration.ofHours(1));
+        LocalDate day = LocalDate.of(2024, 1, 20);
+        String serverZone = ZoneId.systemDefault().getId();
+
+        long[] perQuarter = new long[4];
+        for (long userId = 1; userId <= 2000; userId++) {
+            User user = user(userId, serverZone, 20);
+            LocalDateTime time = window.deliveryTime(user, day);
+            assertEquals(time.toLocalTime(), window.deliveryTime(user, day.plusDays(1)).toLocalTime());
+            assertTrue(!time.isBefore(day.atTime(20, 0)) && time.isBefore(day.atTime(21, 0)));
+            perQuarter[time.getMinute() / 15]++;
+        }
+        // 连续的用户ID被均匀打散到窗口各处
+        for (long count : perQuarter) {
+            assertTrue(count > 400 && count < 600, "quarter count " + count);
+        }
+    }
+
+    @Test
+    void windowStartsAtUserLocalHour() {
+        DeliveryWindow window = window(Duration.ZERO);
+        LocalDate day = LocalDate.of(2024, 7, 1);
+
+        LocalDateTime time = window.deliveryTime(user(7L, "America/New_York", 8), day);
+
+        LocalDateTime expected = ZonedDateTime.of(day.atTime(8, 0), ZoneId.of("America/New_York"))
+                .withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+        assertEquals(expected, time);
+    }
+
+    @Test
+    void zeroWindowDeliversAtLocalHour() {
+        assertEquals(0, DeliveryWindow.offsetSeconds(42, 0));
+    }
+
+    private static DeliveryWindow window(Duration length) {
+        ReportProperties properties = new ReportProperties();
+        properties.setDeliveryWindow(length);
+        return new DeliveryWindow(properties);
+    }
+
+    private static User user(Long id, String timezone, int deliveryHour) {
+        User user = new User();
+        user.setId(id);
+        user.setTimezone(timezone);
+        user.setDeliveryHour(deliveryHour);
+        return user;
+    }
+}
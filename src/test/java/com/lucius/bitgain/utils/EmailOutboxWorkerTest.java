@@ -0,0 +1,262 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.EmailLog;
+import com.lucius.bitgain.mapper.EmailLogMapper;
+import com.lucius.bitgain.mapper.ReportMapper;
+import com.lucius.bitgain.properties.OutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailOutboxWorkerTest {
+
+    private static final Duration INITIAL = Duration.ofSeconds(30);
+    private static final Duration MAX = Duration.ofMinutes(30);
+
+    private final OutboxProperties config = new OutboxProperties();
+    private final Map<Long, EmailLog> rows = new LinkedHashMap<>();
+    private final List<Long> reportsMarkedSent = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailOutboxWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        if (worker != null) {
+            worker.destroy();
+        }
+    }
+
+    @Test
+    void backoffDoublesAfterEachFailure() {
+        assertEquals(Duration.ofSeconds(30), EmailOutboxWorker.backoff(1, INITIAL, MAX));
+        assertEquals(Duration.ofSeconds(60), EmailOutboxWorker.backoff(2, INITIAL, MAX));
+        assertEquals(Duration.ofSeconds(240), EmailOutboxWorker.backoff(4, INITIAL, MAX));
+    }
+
+    @Test
+    void backoffIsCappedAtMax() {
+        assertEquals(MAX, EmailOutboxWorker.backoff(7, INITIAL, MAX));
+        assertEquals(MAX, EmailOutboxWorker.backoff(100, INITIAL, MAX));
+    }
+
+    @Test
+    void deliveredEmailIsMarkedSuccessAndReportFlagged() {
+        rows.put(1L, pending(1L, 7L, 0));
+        rows.put(2L, pending(2L, null, 0));
+        rows.put(3L, pending(3L, 8L, 0));
+        rows.get(3L).setNextRetryTime(LocalDateTime.now().plusHours(1));
+        worker = worker(emails -> { });
+
+        worker.drain();
+
+        assertEquals(EmailLog.STATUS_SUCCESS, rows.get(1L).getSendStatus());
+        assertEquals(EmailLog.STATUS_SUCCESS, rows.get(2L).getSendStatus());
+        // 未到投递时间的邮件不认领
+        assertEquals(EmailLog.STATUS_PENDING, rows.get(3L).getSendStatus());
+        assertEquals(List.of(7L), reportsMarkedSent);
+        assertEquals(2, count("success"));
+    }
+
+    @Test
+    void failedSendIsRescheduledWithBackoff() {
+        rows.put(1L, pending(1L, 7L, 0));
+        worker = worker(emails -> {
+            throw new IllegalStateException("SMTP 421");
+        });
+        LocalDateTime before = LocalDateTime.now();
+
+        worker.drain();
+
+        EmailLog row = rows.get(1L);
+        assertEquals(EmailLog.STATUS_PENDING, row.getSendStatus());
+        assertEquals(1, row.getRetryCount());
+        assertEquals("SMTP 421", row.getErrorMessage());
+        assertFalse(row.getNextRetryTime().isBefore(before.plus(config.getInitialBackoff())));
+        assertTrue(reportsMarkedSent.isEmpty());
+        assertEquals(1, count("retry"));
+    }
+
+    @Test
+    void lastAttemptMarksEmailFailed() {
+        rows.put(1L, pending(1L, 7L, config.getMaxAttempts() - 1));
+        worker = worker(emails -> {
+            throw new IllegalStateException("mailbox unavailable");
+        });
+
+        worker.drain();
+
+        assertEquals(EmailLog.STATUS_FAILED, rows.get(1L).getSendStatus());
+        assertEquals(config.getMaxAttempts(), rows.get(1L).getRetryCount());
+        assertEquals(1, count("failed"));
+    }
+
+    @Test
+    void resultIsDroppedOnceAnotherWorkerTookOverTheLease() {
+        rows.put(1L, pending(1L, 7L, 0));
+        LocalDateTime otherLease = LocalDateTime.now().plusHours(2).withNano(0);
+        // 发送期间租约过期，被另一个线程重新认领
+        worker = worker(emails -> rows.get(1L).setNextRetryTime(otherLease));
+
+        worker.drain();
+
+        EmailLog row = rows.get(1L);
+        assertEquals(EmailLog.STATUS_SENDING, row.getSendStatus());
+        assertEquals(otherLease, row.getNextRetryTime());
+        assertTrue(reportsMarkedSent.isEmpty());
+        assertEquals(0, count("success"));
+        assertEquals(1, count("lease_lost"));
+    }
+
+    private EmailOutboxWorker worker(Consumer<List<EmailLog>> delivery) {
+        MailBatchSender sender = new MailBatchSender(null, config, "noreply@bitgain.test") {
+            @Override
+            public Map<Long, Exception> send(List<EmailLog> emails) {
+                Map<Long, Exception> failures = new LinkedHashMap<>();
+                try {
+                    delivery.accept(emails);
+                } catch (RuntimeException e) {
+                    emails.forEach(email -> failures.put(email.getId(), e));
+                }
+                return failures;
+            }
+        };
+        return new EmailOutboxWorker(config, emailLogMapper(), reportMapper(), sender,
+                new TransactionTemplate(new NoOpTransactionManager()), meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("bitgain.mail.outbox.sent").tag("result", result).counter().count();
+    }
+
+    private static EmailLog pending(Long id, Long reportId, int retryCount) {
+        return EmailLog.builder()
+                .id(id)
+                .userId(1L)
+                .reportId(reportId)
+                .emailType(EmailLog.TYPE_REPORT)
+                .recipient("user" + id + "@bitgain.test")
+                .subject("日报")
+                .content("<p>日报</p>")
+                .sendStatus(EmailLog.STATUS_PENDING)
+                .retryCount(retryCount)
+                .nextRetryTime(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+
+    /**
+     * 内存中的email_log，条件与EmailLogMapper中的SQL一致
+     */
+    @SuppressWarnings("unchecked")
+    private EmailLogMapper emailLogMapper() {
+        return (EmailLogMapper) Proxy.newProxyInstance(EmailLogMapper.class.getClassLoader(),
+                new Class<?>[]{EmailLogMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "selectDueForUpdate" -> rows.values().stream()
+                            .filter(row -> row.getSendStatus().equals(EmailLog.STATUS_PENDING)
+                                    || row.getSendStatus().equals(EmailLog.STATUS_SENDING))
+                            .filter(row -> !row.getNextRetryTime().isAfter((LocalDateTime) args[0]))
+                            .sorted(Comparator.comparing(EmailLog::getNextRetryTime).thenComparing(EmailLog::getId))
+                            .limit((int) args[1])
+                            .map(EmailOutboxWorkerTest::copy)
+                            .toList();
+                    case "markSending" -> {
+                        for (Long id : (Collection<Long>) args[0]) {
+                            rows.get(id).setSendStatus(EmailLog.STATUS_SENDING);
+                            rows.get(id).setNextRetryTime((LocalDateTime) args[1]);
+                        }
+                        yield ((Collection<Long>) args[0]).size();
+                    }
+                    case "markSuccess" -> update(args, row -> {
+                        row.setSendStatus(EmailLog.STATUS_SUCCESS);
+                        row.setSendTime((LocalDateTime) args[2]);
+                        row.setErrorMessage(null);
+                    });
+                    case "markRetry" -> update(args, row -> {
+                        row.setSendStatus(EmailLog.STATUS_PENDING);
+                        row.setRetryCount((int) args[2]);
+                        row.setNextRetryTime((LocalDateTime) args[3]);
+                        row.setErrorMessage((String) args[4]);
+                    });
+                    case "markFailed" -> update(args, row -> {
+                        row.setSendStatus(EmailLog.STATUS_FAILED);
+                        row.setRetryCount((int) args[2]);
+                        row.setErrorMessage((String) args[3]);
+                    });
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * WHERE id = ? AND send_status = 'sending' AND next_retry_time = leaseUntil
+     */
+    private int update(Object[] args, Consumer<EmailLog> change) {
+        EmailLog row = rows.get((Long) args[0]);
+        if (row == null || !row.getSendStatus().equals(EmailLog.STATUS_SENDING)
+                || !row.getNextRetryTime().equals(args[1])) {
+            return 0;
+        }
+        change.accept(row);
+        return 1;
+    }
+
+    private ReportMapper reportMapper() {
+        return (ReportMapper) Proxy.newProxyInstance(ReportMapper.class.getClassLoader(),
+                new Class<?>[]{ReportMapper.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("markEmailSent")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    reportsMarkedSent.add((Long) args[0]);
+                    return 1;
+                });
+    }
+
+    private static EmailLog copy(EmailLog row) {
+        return EmailLog.builder()
+                .id(row.getId())
+                .userId(row.getUserId())
+                .reportId(row.getReportId())
+                .emailType(row.getEmailType())
+                .recipient(row.getRecipient())
+                .subject(row.getSubject())
+                .content(row.getContent())
+                .sendStatus(row.getSendStatus())
+                .retryCount(row.getRetryCount())
+                .nextRetryTime(row.getNextRetryTime())
+                .build();
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.properties.ScheduleProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FreeTimeCalculatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    private final FreeTimeCalculator calculator = new FreeTimeCalculator(new ScheduleProperties());
+
+    @Test
+    void wholeWorkingDayIsFreeWithoutTasks() {
+        List<FreeTimeSlotVO> slots = calculator.calculate(List.of(), DAY);
+        assertEquals(1, slots.size());
+        assertEquals(DAY.atTime(8, 0), slots.get(0).getStartTime());
+        assertEquals(DAY.atTime(22, 0), slots.get(0).getEndTime());
+        assertEquals(840L, slots.get(0).getDurationMinutes());
+    }
+
+    @Test
+    void mergesOverlappingTasksAndClipsToWorkingHours() {
+        List<FreeTimeSlotVO> slots = calculator.calculate(List.of(
+                task(LocalTime.of(13, 0), LocalTime.of(14, 0)),
+                task(LocalTime.of(7, 0), LocalTime.of(9, 0)),
+                task(LocalTime.of(10, 0), LocalTime.of(12, 0)),
+                task(LocalTime.of(11, 0), LocalTime.of(11, 30)),
+                task(LocalTime.of(21, 0), LocalTime.of(23, 0))), DAY);
+
+        assertEquals(3, slots.size());
+        assertEquals(DAY.atTime(9, 0), slots.get(0).getStartTime());
+        assertEquals(DAY.atTime(10, 0), slots.get(0).getEndTime());
+        assertEquals(DAY.atTime(12, 0), slots.get(1).getStartTime());
+        assertEquals(DAY.atTime(13, 0), slots.get(1).getEndTime());
+        assertEquals(DAY.atTime(14, 0), slots.get(2).getStartTime());
+        assertEquals(DAY.atTime(21, 0), slots.get(2).getEndTime());
+    }
+
+    @Test
+    void dropsGapsShorterThanMinimum() {
+        List<FreeTimeSlotVO> slots = calculator.calculate(List.of(
+                task(LocalTime.of(8, 0), LocalTime.of(10, 0)),
+                task(LocalTime.of(10, 3), LocalTime.of(22, 0))), DAY);
+        assertEquals(0, slots.size());
+    }
+
+    private FixedTask task(LocalTime start, LocalTime end) {
+        return FixedTask.builder()
+                .startTime(DAY.atTime(start))
+                .endTime(DAY.atTime(end))
+                .build();
+    }
+}
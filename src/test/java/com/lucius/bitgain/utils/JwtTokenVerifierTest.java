@@ -0,0 +1,43 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.JwtProperties;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "ABELBeJAxH5EAzCdEZk3mLQKu8U0qsuE5WQ4CKc7dehesgsdgdsfrgresdgggggredfbgderghedrhbedEs=";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtTokenVerifier verifier = new JwtTokenVerifier(
+            new JwtProperties(SECRET, 7200000, "Authorization", 100), meterRegistry);
+
+    @Test
+    void verifiesTokensIssuedByJwtUtilAndCachesThem() {
+        String token = JwtUtil.createJWT(SECRET, 60000, Map.of("userId", 21L));
+
+        assertEquals("21", verifier.verify(token).get("userId").toString());
+        assertEquals("21", verifier.verify(token).get("userId").toString());
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verification").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verification").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        String token = JwtUtil.createJWT(SECRET, 60000, Map.of("userId", 21L));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> verifier.verify(tampered));
+
+        String expired = JwtUtil.createJWT(SECRET, -1000, Map.of("userId", 21L));
+        assertThrows(JwtException.class, () -> verifier.verify(expired));
+    }
+}
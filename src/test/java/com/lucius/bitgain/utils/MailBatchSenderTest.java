@@ -0,0 +1,191 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.EmailLog;
+import com.lucius.bitgain.properties.OutboxProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailBatchSenderTest {
+
+    private static final int MESSAGES = 60;
+
+    /**
+     * 模拟每次建立连接的握手开销（smtp.qq.com 的 TCP + STARTTLS 通常在数十毫秒）
+     */
+    private static final long HANDSHAKE_MILLIS = 10;
+
+    private FakeSmtpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new FakeSmtpServer(HANDSHAKE_MILLIS);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void sendsEachBatchOverOneConnection() {
+        Map<Long, Exception> failures = sender(20).send(emails(MESSAGES));
+
+        assertTrue(failures.isEmpty());
+        assertEquals(MESSAGES, server.messages.get());
+        assertEquals(3, server.connections.get());
+    }
+
+    @Test
+    void batchedDeliveryOutperformsPerMessageConnections() {
+        double single = measure(1);
+        int singleConnections = server.connections.getAndSet(0);
+        double batched = measure(20);
+        int batchedConnections = server.connections.get();
+
+        assertEquals(MESSAGES, singleConnections);
+        assertEquals(MESSAGES / 20, batchedConnections);
+        // 逐封发送至少要付出60次握手，按批发送只有3次，吞吐量至少应翻倍
+        assertTrue(batched >= 2 * single, () -> String.format(
+                "handshake %dms: per-message %.1f msgs/s, batched %.1f msgs/s",
+                HANDSHAKE_MILLIS, single, batched));
+    }
+
+    @Test
+    void reportsFailuresPerMessage() {
+        List<EmailLog> emails = emails(5);
+        emails.get(2).setRecipient("not an address");
+
+        Map<Long, Exception> failures = sender(5).send(emails);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(emails.get(2).getId()));
+        assertEquals(4, server.messages.get());
+    }
+
+    private double measure(int batchSize) {
+        MailBatchSender sender = sender(batchSize);
+        List<EmailLog> emails = emails(MESSAGES);
+        long start = System.nanoTime();
+        assertTrue(sender.send(emails).isEmpty());
+        return MESSAGES / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private MailBatchSender sender(int batchSize) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.getPort());
+        OutboxProperties config = new OutboxProperties();
+        config.setSendBatchSize(batchSize);
+        config.setRatePerSecond(0);
+        return new MailBatchSender(mailSender, config, "noreply@bitgain.test");
+    }
+
+    private static List<EmailLog> emails(int count) {
+        List<EmailLog> emails = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            emails.add(EmailLog.builder()
+                    .id((long) i + 1)
+                    .recipient("user" + i + "@bitgain.test")
+                    .subject("📊 您的每日总结")
+                    .content("<html><body><p>今日共安排 <strong>3</strong> 个任务</p></body></html>")
+                    .build());
+        }
+        return emails;
+    }
+
+    /**
+     * 最小化的SMTP服务端，只应答命令并统计连接数和收到的邮件数
+     */
+    private static class FakeSmtpServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final long handshakeMillis;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+
+        FakeSmtpServer(long handshakeMillis) throws IOException {
+            this.handshakeMillis = handshakeMillis;
+            this.serverSocket = new ServerSocket(0);
+            executor.execute(this::acceptLoop);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    executor.execute(() -> handle(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                Thread.sleep(handshakeMillis);
+                reply(out, "220 fake-smtp ready");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 end with <CRLF>.<CRLF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // 丢弃邮件内容
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // 客户端断开
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.constant.AIConstant;
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.properties.AiProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationPromptAssemblerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 20, 0, 0);
+
+    @Test
+    void leavesPromptUntouchedWithinBudget() {
+        RecommendationPromptAssembler assembler = assembler(100_000);
+        User user = user("Java,Spring Boot", "学习微服务架构");
+
+        RecommendationPromptAssembler.AssembledPrompt prompt =
+                assembler.assemble(user, List.of(task()), List.of(), List.of(slot()));
+
+        assertFalse(prompt.trimmed());
+        assertTrue(prompt.userPrompt().contains("技能: Java,Spring Boot\n"));
+        assertTrue(prompt.userPrompt().contains("目标: 学习微服务架构\n"));
+        // 系统提示只由ChatClient发送，不出现在用户提示中
+        assertFalse(prompt.userPrompt().contains("时间管理与日程规划专家"));
+        assertEquals(assembler.countTokens(AIConstant.RECOMMEND_SYSTEM) + assembler.countTokens(prompt.userPrompt()),
+                prompt.inputTokens());
+    }
+
+    @Test
+    void trimsSkillsAndGoalsToFitBudget() {
+        int systemTokens = new RecommendationPromptAssembler(new AiProperties(), new SimpleMeterRegistry())
+                .countTokens(AIConstant.RECOMMEND_SYSTEM);
+        int budget = systemTokens + 300;
+        RecommendationPromptAssembler assembler = assembler(budget);
+        User user = user("分布式系统设计与实现，".repeat(200), "成为架构师并系统学习云原生技术栈；".repeat(200));
+
+        RecommendationPromptAssembler.AssembledPrompt prompt =
+                assembler.assemble(user, List.of(task()), List.of(), List.of(slot()));
+
+        assertTrue(prompt.trimmed());
+        assertTrue(prompt.inputTokens() <= budget, "tokens " + prompt.inputTokens());
+        assertTrue(prompt.userPrompt().contains("技能: 分布式系统设计与实现"));
+        assertTrue(prompt.userPrompt().contains("…\n目标: 成为架构师"));
+        // 日程和空闲时间段保持完整
+        assertTrue(prompt.userPrompt().contains("- 组会 (09:00-10:00)\n"));
+        assertTrue(prompt.userPrompt().contains("- 10:00-12:00 (120分钟)\n"));
+    }
+
+    @Test
+    void shortFieldLeavesItsShareToTheOther() {
+        RecommendationPromptAssembler assembler = assembler(100);
+        String skills = "Java";
+        String goals = "成为架构师并系统学习云原生技术栈；".repeat(50);
+
+        String truncatedGoals = assembler.truncate(goals, 60);
+
+        assertEquals(skills, assembler.truncate(skills, 40));
+        assertTrue(assembler.countTokens(truncatedGoals) <= 60);
+        assertTrue(truncatedGoals.endsWith("…"));
+        assertEquals("（内容过长已省略）", assembler.truncate(goals, 0));
+    }
+
+    private static RecommendationPromptAssembler assembler(int maxInputTokens) {
+        AiProperties properties = new AiProperties();
+        properties.getPrompt().setMaxInputTokens(maxInputTokens);
+        return new RecommendationPromptAssembler(properties, new SimpleMeterRegistry());
+    }
+
+    private static User user(String skills, String goals) {
+        User user = new User();
+        user.setId(1L);
+        user.setProfession("软件工程师");
+        user.setSkills(skills);
+        user.setGoals(goals);
+        return user;
+    }
+
+    private static FixedTask task() {
+        FixedTask task = new FixedTask();
+        task.setTitle("组会");
+        task.setStartTime(DAY.withHour(9));
+        task.setEndTime(DAY.withHour(10));
+        return task;
+    }
+
+    private static FreeTimeSlotVO slot() {
+        return FreeTimeSlotVO.builder()
+                .startTime(DAY.withHour(10))
+                .endTime(DAY.withHour(12))
+                .durationMinutes(120L)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.RecommendActivity;
+import com.lucius.bitgain.entity.TodayGoal;
+import com.lucius.bitgain.entity.User;
+import com.lucius.bitgain.mapper.RecommendActivityMapper;
+import com.lucius.bitgain.properties.AiProperties;
+import com.lucius.bitgain.vo.FreeTimeSlotVO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationRuleEngineTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 20, 0, 0);
+
+    @Test
+    void ranksByProfessionSkillAndGoalMatches() {
+        RecommendationRuleEngine engine = engine(new AiProperties());
+        engine.load(List.of(
+                activity(1L, "晨跑", "健康运动", 30, "", "所有职业", 100, "运动,健康"),
+                activity(2L, "刷一道算法题", "学习提升", 30, "java", "程序员", 10, "算法,编程"),
+                activity(3L, "阅读源码", "学习提升", 30, "java,spring", "程序员", 5, "源码,编程"),
+                activity(4L, "练习素描", "创意娱乐", 30, "", "设计师", 50, "绘画")));
+
+        List<RecommendationRuleEngine.Recommendation> result = engine.recommend(
+                user("Java后端程序员", "Java,Spring", "提升算法能力"), List.of(goal("读完Spring源码")),
+                List.of(slot(10, 0, 12, 0)), DAY);
+
+        // 源码：职业3 + 技能java 2 + spring 2 + 目标命中spring 2、源码 2
+        assertEquals(List.of(3L, 2L, 1L), result.stream().map(r -> r.activity().getId()).toList());
+        assertEquals(11, result.get(0).score());
+        // 不匹配职业、技能、目标的活动不推荐
+        assertTrue(result.stream().noneMatch(r -> r.activity().getId() == 4L));
+    }
+
+    @Test
+    void placesActivitiesIntoFreeSlotsAfterNotBefore() {
+        RecommendationRuleEngine engine = engine(new AiProperties());
+        engine.load(List.of(
+                activity(1L, "长时间学习", "学习提升", 90, "", "所有职业", 30, ""),
+                activity(2L, "短时间学习", "生活技能", 20, "", "所有职业", 20, ""),
+                activity(3L, "拉伸", "健康运动", 15, "", "所有职业", 10, "")));
+
+        List<RecommendationRuleEngine.Recommendation> result = engine.recommend(
+                user("教师", null, null), List.of(),
+                List.of(slot(8, 0, 9, 0), slot(14, 0, 16, 0)), DAY.withHour(8).withMinute(22).withSecond(10));
+
+        // 8:22过后第一个时间段只剩8:25-9:00，90分钟的活动放到下午
+        assertEquals(3, result.size());
+        assertEquals(DAY.withHour(14), result.get(0).startTime());
+        assertEquals(DAY.withHour(15).withMinute(30), result.get(0).endTime());
+        assertEquals(DAY.withHour(8).withMinute(25), result.get(1).startTime());
+        assertEquals(DAY.withHour(8).withMinute(45), result.get(1).endTime());
+        // 同一时间段内紧接上一个活动
+        assertEquals(DAY.withHour(8).withMinute(45), result.get(2).startTime());
+        assertEquals(DAY.withHour(9), result.get(2).endTime());
+    }
+
+    @Test
+    void capsResultsPerCategoryAndInTotal() {
+        AiProperties properties = new AiProperties();
+        properties.getRuleEngine().setTopK(3);
+        properties.getRuleEngine().setMaxPerCategory(1);
+        RecommendationRuleEngine engine = engine(properties);
+        engine.load(List.of(
+                activity(1L, "A", "学习提升", 10, "", "所有职业", 50, ""),
+                activity(2L, "B", "学习提升", 10, "", "所有职业", 40, ""),
+                activity(3L, "C", "健康运动", 10, "", "所有职业", 30, ""),
+                activity(4L, "D", "生活技能", 10, "", "所有职业", 20, ""),
+                activity(5L, "E", "创意娱乐", 10, "", "所有职业", 10, "")));
+
+        List<RecommendationRuleEngine.Recommendation> result = engine.recommend(
+                user("学生", null, null), List.of(), List.of(slot(10, 0, 12, 0)), DAY);
+
+        assertEquals(List.of(1L, 3L, 4L), result.stream().map(r -> r.activity().getId()).toList());
+    }
+
+    @Test
+    void returnsNothingWithoutCatalogOrFreeTime() {
+        RecommendationRuleEngine engine = engine(new AiProperties());
+        assertTrue(engine.recommend(user("学生", null, null), List.of(), List.of(slot(10, 0, 12, 0)), DAY).isEmpty());
+
+        engine.load(List.of(activity(1L, "晨跑", "健康运动", 30, "", "所有职业", 100, "")));
+        assertTrue(engine.recommend(user("学生", null, null), List.of(), List.of(), DAY).isEmpty());
+        assertTrue(engine.recommend(user("学生", null, null), List.of(), List.of(slot(10, 0, 10, 20)), DAY).isEmpty());
+    }
+
+    private static RecommendationRuleEngine engine(AiProperties properties) {
+        RecommendActivityMapper mapper = List::of;
+        return new RecommendationRuleEngine(mapper, properties);
+    }
+
+    private static RecommendActivity activity(Long id, String title, String category, int duration, String skills,
+                                              String professions, int popularity, String tags) {
+        return RecommendActivity.builder()
+                .id(id)
+                .title(title)
+                .description(title)
+                .category(category)
+                .duration(duration)
+                .skillsRequired(skills)
+                .professionMatch(professions)
+                .popularity(popularity)
+                .tags(tags)
+                .build();
+    }
+
+    private static User user(String profession, String skills, String goals) {
+        User user = new User();
+        user.setId(1L);
+        user.setProfession(profession);
+        user.setSkills(skills);
+        user.setGoals(goals);
+        return user;
+    }
+
+    private static TodayGoal goal(String text) {
+        TodayGoal goal = new TodayGoal();
+        goal.setGoal(text);
+        return goal;
+    }
+
+    private static FreeTimeSlotVO slot(int startHour, int startMinute, int endHour, int endMinute) {
+        LocalDateTime start = DAY.withHour(startHour).withMinute(startMinute);
+        LocalDateTime end = DAY.withHour(endHour).withMinute(endMinute);
+        return FreeTimeSlotVO.builder()
+                .startTime(start)
+                .endTime(end)
+                .durationMinutes(Duration.between(start, end).toMinutes())
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.lucius.bitgain.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationSingleFlightTest {
+
+    private static final Map<String, Object> TASK_1 = Map.of("id", 1, "title", "背单词");
+    private static final Map<String, Object> TASK_2 = Map.of("id", 2, "title", "阅读文档");
+
+    @Test
+    void concurrentDuplicatesShareOneGeneration() throws Exception {
+        RecommendationSingleFlight singleFlight = new RecommendationSingleFlight(new SimpleMeterRegistry());
+        RecommendationSingleFlight.Joined first = singleFlight.join(1L, "abc");
+        RecommendationSingleFlight.Joined second = singleFlight.join(1L, "abc");
+        RecommendationSingleFlight.Joined otherUser = singleFlight.join(2L, "abc");
+
+        assertTrue(first.leader());
+        assertFalse(second.leader());
+        assertSame(first.flight(), second.flight());
+        assertTrue(otherUser.leader());
+
+        RecordingEmitter leader = new RecordingEmitter();
+        first.flight().attach(leader);
+        first.flight().publish(TASK_1);
+        // 后到的连接先补发已生成的事件，再接收后续事件
+        RecordingEmitter follower = new RecordingEmitter();
+        second.flight().attach(follower);
+        first.flight().publish(TASK_2);
+        first.flight().complete(List.of(TASK_1, TASK_2));
+
+        assertEquals(leader.events, follower.events);
+        assertEquals(4, follower.events.size());
+        assertEquals("end", follower.events.get(3));
+        assertEquals(List.of(TASK_1, TASK_2), second.flight().await(Duration.ofSeconds(1)));
+        assertEquals(1, singleFlight.getInFlight());
+        // 结束后相同请求重新发起生成
+        assertTrue(singleFlight.join(1L, "abc").leader());
+    }
+
+    @Test
+    void upstreamIsCancelledOnlyAfterLastClientLeaves() {
+        RecommendationSingleFlight singleFlight = new RecommendationSingleFlight(new SimpleMeterRegistry());
+        RecommendationSingleFlight.Flight flight = singleFlight.join(1L, "abc").flight();
+        Disposable first = flight.attach(new RecordingEmitter());
+        Disposable second = flight.attach(new RecordingEmitter());
+        Disposable upstream = Flux.interval(Duration.ofMillis(10)).subscribe();
+        flight.bindUpstream(upstream);
+
+        first.dispose();
+        first.dispose();
+        assertFalse(upstream.isDisposed());
+
+        second.dispose();
+        assertTrue(upstream.isDisposed());
+        assertTrue(flight.isCancelled());
+        assertThrows(CancellationException.class, () -> flight.await(Duration.ofSeconds(1)));
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void failureIsFannedOut() {
+        RecommendationSingleFlight singleFlight = new RecommendationSingleFlight(new SimpleMeterRegistry());
+        RecommendationSingleFlight.Flight flight = singleFlight.join(1L, "abc").flight();
+        RecordingEmitter emitter = new RecordingEmitter();
+        flight.attach(emitter);
+
+        flight.fail("错误：AI调用失败 - timeout", new IllegalStateException("timeout"));
+
+        assertEquals(List.of("错误：AI调用失败 - timeout"), emitter.events);
+        assertThrows(IllegalStateException.class, () -> flight.await(Duration.ofSeconds(1)));
+        // 失败后才挂载的连接直接收到同样的错误
+        RecordingEmitter late = new RecordingEmitter();
+        flight.attach(late);
+        assertEquals(emitter.events, late.events);
+    }
+
+    @Test
+    void synchronousRequestsAreCompletedWithoutBlocking() {
+        RecommendationSingleFlight singleFlight = new RecommendationSingleFlight(new SimpleMeterRegistry());
+        RecommendationSingleFlight.Flight flight = singleFlight.join(1L, "abc").flight();
+        List<Object> results = new ArrayList<>();
+        flight.whenDone((taskDetails, error) -> results.add(taskDetails));
+        assertTrue(results.isEmpty());
+
+        flight.complete(List.of(TASK_1));
+        // 结束后才注册的回调立即执行
+        flight.whenDone((taskDetails, error) -> results.add(taskDetails));
+
+        assertEquals(List.of(List.of(TASK_1), List.of(TASK_1)), results);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            String text = event.toString();
+            events.add(text.substring(text.lastIndexOf("data:") + 5).trim());
+        }
+    }
+}
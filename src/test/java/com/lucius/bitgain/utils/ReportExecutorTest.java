@@ -0,0 +1,79 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.ReportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportExecutorTest {
+
+    private ReportExecutor reportExecutor;
+
+    @AfterEach
+    void tearDown() {
+        reportExecutor.destroy();
+    }
+
+    @Test
+    void awaitWaitsForAllTasksAndCountsOutcomes() throws Exception {
+        reportExecutor = executor(4, 10);
+        ReportExecutor.Batch batch = reportExecutor.newBatch();
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            batch.submit(() -> {
+                Thread.sleep(2);
+                if (index % 10 == 0) {
+                    throw new IllegalStateException("smtp down");
+                }
+                return null;
+            });
+        }
+
+        ReportExecutor.BatchResult result = batch.await();
+        assertTrue(result.completed());
+        assertEquals(45, result.succeeded());
+        assertEquals(5, result.failed());
+    }
+
+    @Test
+    void submitBlocksWhenExecutorIsFull() throws Exception {
+        reportExecutor = executor(1, 1);
+        ReportExecutor.Batch batch = reportExecutor.newBatch();
+        CountDownLatch release = new CountDownLatch(1);
+        batch.submit(() -> release.await(5, TimeUnit.SECONDS));
+        batch.submit(() -> null);
+
+        AtomicInteger submitted = new AtomicInteger();
+        Thread scanner = new Thread(() -> {
+            try {
+                batch.submit(() -> null);
+                submitted.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        scanner.start();
+        scanner.join(200);
+        assertFalse(submitted.get() > 0, "执行器已满时提交应阻塞");
+
+        release.countDown();
+        scanner.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(1, submitted.get());
+        assertEquals(3, batch.await().succeeded());
+    }
+
+    private static ReportExecutor executor(int concurrency, int queueCapacity) {
+        ReportProperties properties = new ReportProperties();
+        properties.setConcurrency(concurrency);
+        properties.setQueueCapacity(queueCapacity);
+        return new ReportExecutor(properties, new SimpleMeterRegistry());
+    }
+}
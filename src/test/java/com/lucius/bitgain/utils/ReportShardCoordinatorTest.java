@@ -0,0 +1,63 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.ReportShard;
+import com.lucius.bitgain.mapper.ReportShardMapper;
+import com.lucius.bitgain.properties.ReportProperties;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportShardCoordinatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+    private static final DeliverySlot SLOT = new DeliverySlot("Asia/Tokyo", 21);
+
+    private final List<ReportShard> inserted = new ArrayList<>();
+    private final ReportShardCoordinator coordinator = coordinator();
+
+    @Test
+    void sparseSlotOnlyGetsTheShardsCoveringItsSubscribers() {
+        assertEquals(1, coordinator.plan(DAY, SLOT, 2_500_001L, 2_500_001L));
+
+        ReportShard shard = inserted.get(0);
+        assertEquals(250, shard.getShardNo());
+        assertEquals(2_500_001L, shard.getStartUserId());
+        assertEquals(2_510_001L, shard.getEndUserId());
+        assertEquals(2_500_000L, shard.getCheckpointUserId());
+        assertEquals(SLOT.key(), shard.getSlot());
+    }
+
+    @Test
+    void shardBoundariesStayAlignedToTheSpan() {
+        assertEquals(3, coordinator.plan(DAY, SLOT, 15_000L, 30_001L));
+
+        assertEquals(List.of(1, 2, 3), inserted.stream().map(ReportShard::getShardNo).toList());
+        assertEquals(10_001L, inserted.get(0).getStartUserId());
+        assertEquals(40_001L, inserted.get(2).getEndUserId());
+    }
+
+    @Test
+    void slotWithoutSubscribersIsNotPlanned() {
+        assertEquals(0, coordinator.plan(DAY, SLOT, null, null));
+        assertTrue(inserted.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReportShardCoordinator coordinator() {
+        ReportShardMapper mapper = (ReportShardMapper) Proxy.newProxyInstance(ReportShardMapper.class.getClassLoader(),
+                new Class<?>[]{ReportShardMapper.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("insertIgnore")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    inserted.addAll((List<ReportShard>) args[0]);
+                    return ((List<ReportShard>) args[0]).size();
+                });
+        return new ReportShardCoordinator(mapper, new ReportProperties(), null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.lucius.bitgain.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportTimingWheelTest {
+
+    private static final DeliverySlot SHANGHAI_20 = new DeliverySlot("Asia/Shanghai", 20);
+    private static final DeliverySlot NEW_YORK_2 = new DeliverySlot("America/New_York", 2);
+    private static final DeliverySlot KATHMANDU_9 = new DeliverySlot("Asia/Kathmandu", 9);
+
+    @Test
+    void firesOnlyInTheSlotsLocalMinute() {
+        ReportTimingWheel wheel = new ReportTimingWheel();
+        Instant now = Instant.parse("2024-01-20T00:00:00Z");
+        wheel.refresh(List.of(SHANGHAI_20, KATHMANDU_9), now);
+
+        // 上海20:00 = 12:00Z
+        assertTrue(wheel.due(Instant.parse("2024-01-20T11:58:00Z"), Instant.parse("2024-01-20T11:59:59Z")).isEmpty());
+        List<ReportTimingWheel.Firing> firings =
+                wheel.due(Instant.parse("2024-01-20T11:59:00Z"), Instant.parse("2024-01-20T12:00:30Z"));
+        assertEquals(List.of(new ReportTimingWheel.Firing(SHANGHAI_20, LocalDate.of(2024, 1, 20))), firings);
+
+        // 加德满都 UTC+5:45，09:00 = 03:15Z
+        firings = wheel.due(Instant.parse("2024-01-20T03:14:00Z"), Instant.parse("2024-01-20T03:15:00Z"));
+        assertEquals(List.of(new ReportTimingWheel.Firing(KATHMANDU_9, LocalDate.of(2024, 1, 20))), firings);
+    }
+
+    @Test
+    void reportDateIsTheSlotsLocalDate() {
+        ReportTimingWheel wheel = new ReportTimingWheel();
+        wheel.refresh(List.of(new DeliverySlot("Pacific/Auckland", 7)), Instant.parse("2024-01-20T00:00:00Z"));
+        // 奥克兰夏令时 UTC+13，1月21日07:00 = 1月20日18:00Z
+        Instant from = Instant.parse("2024-01-20T17:59:00Z");
+        List<ReportTimingWheel.Firing> firings = wheel.due(from, from.plusSeconds(60));
+        assertEquals(1, firings.size());
+        assertEquals(LocalDate.of(2024, 1, 21), firings.get(0).reportDate());
+    }
+
+    @Test
+    void catchUpRangeCoversMissedMinutes() {
+        ReportTimingWheel wheel = new ReportTimingWheel();
+        wheel.refresh(List.of(SHANGHAI_20), Instant.parse("2024-01-20T00:00:00Z"));
+        List<ReportTimingWheel.Firing> firings =
+                wheel.due(Instant.parse("2024-01-20T11:55:00Z"), Instant.parse("2024-01-20T12:03:00Z"));
+        assertEquals(1, firings.size());
+    }
+
+    @Test
+    void followsDaylightSavingChanges() {
+        ReportTimingWheel wheel = new ReportTimingWheel();
+        // 2024-03-10 纽约02:00跳到03:00，当天投递顺延到03:00 EDT = 07:00Z；前一天02:00 EST = 07:00Z
+        wheel.refresh(List.of(NEW_YORK_2), Instant.parse("2024-03-09T12:00:00Z"));
+        assertEquals(1, wheel.due(Instant.parse("2024-03-10T06:59:00Z"), Instant.parse("2024-03-10T07:00:00Z")).size());
+
+        // 3月11日起02:00 EDT = 06:00Z，重建后时段移到新的槽
+        wheel.refresh(List.of(NEW_YORK_2), Instant.parse("2024-03-10T12:00:00Z"));
+        List<ReportTimingWheel.Firing> firings =
+                wheel.due(Instant.parse("2024-03-11T05:59:00Z"), Instant.parse("2024-03-11T06:00:00Z"));
+        assertEquals(List.of(new ReportTimingWheel.Firing(NEW_YORK_2, LocalDate.of(2024, 3, 11))), firings);
+        assertTrue(wheel.due(Instant.parse("2024-03-11T06:59:00Z"), Instant.parse("2024-03-11T07:00:00Z")).isEmpty());
+    }
+}
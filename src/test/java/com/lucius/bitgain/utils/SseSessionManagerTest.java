@@ -0,0 +1,46 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.properties.AiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseSessionManagerTest {
+
+    @Test
+    void disposesUpstreamWhenSessionEnds() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SseSessionManager manager = new SseSessionManager(new AiProperties(), registry);
+        SseEmitter emitter = manager.open();
+        Disposable subscription = Flux.interval(Duration.ofMillis(10)).subscribe();
+
+        manager.bind(emitter, subscription);
+        assertTrue(manager.isOpen(emitter));
+        assertEquals(1.0, registry.get("bitgain.ai.sse.active").gauge().value());
+
+        manager.destroy();
+        assertTrue(subscription.isDisposed());
+        assertFalse(manager.isOpen(emitter));
+        assertEquals(0, manager.getActiveSessions());
+    }
+
+    @Test
+    void bindingAfterSessionEndedDisposesImmediately() {
+        SseSessionManager manager = new SseSessionManager(new AiProperties(), new SimpleMeterRegistry());
+        SseEmitter unmanaged = new SseEmitter();
+        Disposable subscription = Flux.interval(Duration.ofMillis(10)).subscribe();
+
+        manager.bind(unmanaged, subscription);
+
+        assertTrue(subscription.isDisposed());
+        manager.destroy();
+    }
+}
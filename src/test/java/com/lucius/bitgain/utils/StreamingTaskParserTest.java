@@ -0,0 +1,72 @@
+package com.lucius.bitgain.utils;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingTaskParserTest {
+
+    private static final String RESPONSE = "{\"tasks\":[" +
+            "{\"title\":\"阅读{技术}文章\",\"description\":\"看\\\"[Spring]\\\"文档\",\"startTime\":\"11:30:00\",\"endTime\":\"12:00:00\"}," +
+            "{\"title\":\"背单词\",\"description\":\"背20个单词\",\"startTime\":\"15:30:00\",\"endTime\":\"16:00:00\"}" +
+            "]}";
+
+    @Test
+    void emitsEachTaskAsSoonAsItCloses() {
+        StreamingTaskParser parser = new StreamingTaskParser();
+        int firstTaskEnd = RESPONSE.indexOf("},{") + 1;
+
+        List<JsonObject> first = parser.feed(RESPONSE.substring(0, firstTaskEnd));
+        assertEquals(1, first.size());
+        assertEquals("阅读{技术}文章", first.get(0).get("title").getAsString());
+        assertEquals("看\"[Spring]\"文档", first.get(0).get("description").getAsString());
+
+        List<JsonObject> rest = parser.feed(RESPONSE.substring(firstTaskEnd));
+        assertEquals(1, rest.size());
+        assertEquals("背单词", rest.get(0).get("title").getAsString());
+    }
+
+    @Test
+    void handlesTokenSizedFragments() {
+        StreamingTaskParser parser = new StreamingTaskParser();
+        List<JsonObject> tasks = new ArrayList<>();
+        for (int i = 0; i < RESPONSE.length(); i += 3) {
+            tasks.addAll(parser.feed(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + 3))));
+        }
+        assertEquals(2, tasks.size());
+        assertEquals("16:00:00", tasks.get(1).get("endTime").getAsString());
+    }
+
+    @Test
+    void ignoresTextOutsideRootObject() {
+        StreamingTaskParser parser = new StreamingTaskParser();
+        assertTrue(parser.feed("好的，以下是推荐结果：\n").isEmpty());
+        assertEquals(2, parser.feed(RESPONSE).size());
+    }
+
+    @Test
+    void bracketsBeforeRootObjectDoNotShiftDepth() {
+        StreamingTaskParser parser = new StreamingTaskParser();
+        assertTrue(parser.feed("[推荐结果] 共2个任务：\n").isEmpty());
+        List<JsonObject> tasks = parser.feed(RESPONSE);
+        assertEquals(2, tasks.size());
+        assertEquals("背单词", tasks.get(1).get("title").getAsString());
+    }
+
+    @Test
+    void onlyObjectsUnderTasksKeyAreEmitted() {
+        StreamingTaskParser parser = new StreamingTaskParser();
+        String response = "{\"tips\":[{\"title\":\"多喝水\"}],\"note\":\"tasks\",\"tasks\":[" +
+                "{\"title\":\"背单词\",\"startTime\":\"15:30:00\",\"endTime\":\"16:00:00\"}]}";
+
+        List<JsonObject> tasks = parser.feed(response);
+
+        assertEquals(1, tasks.size());
+        assertEquals("背单词", tasks.get(0).get("title").getAsString());
+    }
+}
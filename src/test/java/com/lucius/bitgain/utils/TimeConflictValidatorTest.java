@@ -0,0 +1,130 @@
+package com.lucius.bitgain.utils;
+
+import com.lucius.bitgain.entity.FixedTask;
+import com.lucius.bitgain.mapper.FixedTaskMapper;
+import com.lucius.bitgain.mapper.UserMapper;
+import com.lucius.bitgain.properties.ScheduleProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeConflictValidatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    private final List<FixedTask> stored = new ArrayList<>();
+    private final List<String> queries = new ArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private final TimeConflictValidator validator = new TimeConflictValidator(fixedTaskMapper(), userMapper(),
+            new ScheduleProperties(), new SimpleMeterRegistry(), Clock.fixed(DAY.atTime(8, 0).atZone(ZONE).toInstant(), ZONE));
+
+    @Test
+    void answersFromTheIndexWhileTheVersionIsUnchanged() {
+        stored.add(task(2L, at(9, 0), at(10, 0)));
+        stored.add(task(3L, at(13, 0), at(15, 0)));
+        // 0点之前就已结束的任务不加载
+        stored.add(task(4L, DAY.minusDays(1).atTime(9, 0), DAY.minusDays(1).atTime(10, 0)));
+
+        assertEquals(List.of(2L), ids(validator.findConflicts(1L, at(9, 30), at(10, 30), null)));
+        assertTrue(validator.findConflicts(1L, at(10, 0), at(13, 0), null).isEmpty());
+        assertEquals(List.of(2L, 3L), ids(validator.findConflicts(1L, at(8, 0), at(14, 0), null)));
+
+        assertEquals(List.of("endingAfter"), queries);
+    }
+
+    @Test
+    void reloadsOnceAnotherNodeChangedTheTasks() {
+        stored.add(task(2L, at(9, 0), at(10, 0)));
+        assertTrue(validator.findConflicts(1L, at(10, 0), at(11, 0), null).isEmpty());
+
+        // 其他节点提交的任务在同一事务中递增了版本号
+        stored.add(task(3L, at(10, 30), at(11, 30)));
+        validator.onTasksChanged(1L);
+
+        assertEquals(List.of(3L), ids(validator.findConflicts(1L, at(10, 0), at(11, 0), null)));
+        assertEquals(List.of("endingAfter", "endingAfter"), queries);
+    }
+
+    @Test
+    void periodsBeforeTheIndexWindowQueryTheDatabase() {
+        stored.add(task(4L, DAY.minusDays(1).atTime(9, 0), DAY.minusDays(1).atTime(10, 0)));
+
+        assertEquals(List.of(4L), ids(validator.findConflicts(1L,
+                DAY.minusDays(1).atTime(9, 30), DAY.minusDays(1).atTime(11, 0), null)));
+        assertEquals("timeRange", queries.get(queries.size() - 1));
+    }
+
+    @Test
+    void excludesTheTaskBeingUpdated() {
+        stored.add(task(1L, at(6, 0), at(23, 0)));
+        stored.add(task(2L, at(9, 0), at(10, 0)));
+
+        assertEquals(List.of(1L), ids(validator.findConflicts(1L, at(9, 15), at(9, 45), 2L)));
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        FixedTask task = task(2L, at(9, 0), at(10, 0));
+
+        assertFalse(TimeConflictValidator.overlaps(task, at(10, 0), at(11, 0)));
+        assertFalse(TimeConflictValidator.overlaps(task, at(8, 0), at(9, 0)));
+        assertTrue(TimeConflictValidator.overlaps(task, at(8, 0), at(9, 1)));
+        assertEquals("任务2(09:00-10:00)", TimeConflictValidator.describe(List.of(task)));
+    }
+
+    /**
+     * 内存中的fixed_task，条件与FixedTaskMapper中的SQL一致
+     */
+    private FixedTaskMapper fixedTaskMapper() {
+        return (FixedTaskMapper) Proxy.newProxyInstance(FixedTaskMapper.class.getClassLoader(),
+                new Class<?>[]{FixedTaskMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "selectByUserIdEndingAfter" -> {
+                        queries.add("endingAfter");
+                        yield stored.stream().filter(task -> task.getEndTime().isAfter((LocalDateTime) args[1])).toList();
+                    }
+                    case "selectByUserIdAndTimeRange" -> {
+                        queries.add("timeRange");
+                        yield stored.stream().filter(task -> TimeConflictValidator.overlaps(task,
+                                (LocalDateTime) args[1], (LocalDateTime) args[2])).toList();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private UserMapper userMapper() {
+        return (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+                new Class<?>[]{UserMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getScheduleVersion" -> version.get();
+                    case "increaseScheduleVersion" -> {
+                        version.incrementAndGet();
+                        yield 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<Long> ids(List<FixedTask> tasks) {
+        return tasks.stream().map(FixedTask::getId).toList();
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+
+    private static FixedTask task(Long id, LocalDateTime start, LocalDateTime end) {
+        return FixedTask.builder().id(id).title("任务" + id).startTime(start).endTime(end).build();
+    }
+}
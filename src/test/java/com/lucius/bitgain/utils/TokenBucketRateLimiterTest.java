@@ -0,0 +1,45 @@
+package com.lucius.bitgain.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void burstPassesImmediatelyThenRateApplies() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 20, clock::get);
+
+        assertEquals(0, limiter.reserve(20));
+        // 桶已空，预支10个令牌本次不等待，由下一次调用等待补足
+        assertEquals(0, limiter.reserve(10));
+        assertNanos(SECOND, limiter.reserve(1));
+    }
+
+    @Test
+    void refillsAtConfiguredRateUpToBurst() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 20, clock::get);
+        limiter.reserve(20);
+
+        clock.addAndGet(SECOND / 2);
+        assertEquals(0, limiter.reserve(5));
+        assertEquals(0, limiter.reserve(1));
+        assertNanos(SECOND / 10, limiter.reserve(1));
+
+        clock.addAndGet(60 * SECOND);
+        assertEquals(0, limiter.reserve(20));
+        assertEquals(0, limiter.reserve(1));
+    }
+
+    private static void assertNanos(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= 1, "expected " + expected + " but was " + actual);
+    }
+}
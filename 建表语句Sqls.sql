@@ -28,6 +28,9 @@ CREATE TABLE `user` (
   `skills` TEXT DEFAULT NULL COMMENT '技能标签，逗号分隔',
   `goals` TEXT DEFAULT NULL COMMENT '提升目标',
   `email_subscribe` TINYINT(1) NOT NULL DEFAULT 1 COMMENT '邮件订阅开关：0-关闭，1-开启',
+  `timezone` VARCHAR(64) NOT NULL DEFAULT 'Asia/Shanghai' COMMENT '用户时区（IANA时区ID）',
+  `delivery_hour` TINYINT NOT NULL DEFAULT 20 COMMENT '日报投递时间（用户本地小时，0-23）',
+  `schedule_version` BIGINT NOT NULL DEFAULT 0 COMMENT '固定任务版本号，有效任务变化时递增，用于判断时间冲突索引是否过期',
   `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '软删除标记：0-未删除，1-已删除',
@@ -36,7 +39,8 @@ CREATE TABLE `user` (
   UNIQUE KEY `uk_email` (`email`),
   KEY `idx_phone` (`phone`),
   KEY `idx_profession` (`profession`),
-  KEY `idx_deleted` (`deleted`)
+  KEY `idx_deleted` (`deleted`),
+  KEY `idx_subscribe_delivery` (`email_subscribe`, `timezone`, `delivery_hour`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
 -- =====================================================
@@ -60,7 +64,7 @@ CREATE TABLE `fixed_task` (
   KEY `idx_start_time` (`start_time`),
   KEY `idx_end_time` (`end_time`),
   KEY `idx_deleted` (`deleted`),
-  KEY `idx_user_time` (`user_id`, `start_time`, `end_time`),
+  KEY `idx_user_deleted_time` (`user_id`, `deleted`, `start_time`, `end_time`),
   CONSTRAINT `fk_fixed_task_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='固定任务表';
 
@@ -179,23 +183,50 @@ DROP TABLE IF EXISTS `email_log`;
 CREATE TABLE `email_log` (
   `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '日志ID，主键',
   `user_id` BIGINT NOT NULL COMMENT '用户ID，外键',
+  `report_id` BIGINT DEFAULT NULL COMMENT '关联的报告ID，报告推送邮件发送成功后回写report.email_sent',
   `email_type` VARCHAR(50) NOT NULL COMMENT '邮件类型：register-注册验证，report-报告推送，notification-通知',
   `recipient` VARCHAR(100) NOT NULL COMMENT '收件人邮箱',
   `subject` VARCHAR(200) NOT NULL COMMENT '邮件主题',
   `content` TEXT DEFAULT NULL COMMENT '邮件内容',
-  `send_status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '发送状态：pending-待发送，success-成功，failed-失败',
+  `send_status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '发送状态：pending-待发送，sending-发送中，success-成功，failed-失败',
   `send_time` DATETIME DEFAULT NULL COMMENT '发送时间',
   `error_message` TEXT DEFAULT NULL COMMENT '错误信息',
   `retry_count` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '重试次数',
+  `next_retry_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次可发送时间，sending状态下为认领租约到期时间',
   `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`),
   KEY `idx_user_id` (`user_id`),
   KEY `idx_email_type` (`email_type`),
   KEY `idx_send_status` (`send_status`),
   KEY `idx_send_time` (`send_time`),
+  KEY `idx_status_next_retry` (`send_status`, `next_retry_time`),
+  UNIQUE KEY `uk_report_email_type` (`report_id`, `email_type`),
   CONSTRAINT `fk_email_log_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件日志表';
 
+-- =====================================================
+-- 8. 日报分片租约表 (report_shard)
+-- 功能: 多节点分片执行日报任务，记录租约和检查点
+-- =====================================================
+DROP TABLE IF EXISTS `report_shard`;
+CREATE TABLE `report_shard` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '分片ID，主键',
+  `run_date` DATE NOT NULL COMMENT '日报日期（用户本地日期）',
+  `slot` VARCHAR(80) NOT NULL DEFAULT '' COMMENT '投递时段：时区@投递小时，如 Asia/Shanghai@20',
+  `shard_no` INT NOT NULL COMMENT '分片序号',
+  `start_user_id` BIGINT NOT NULL COMMENT '用户ID范围起点（包含）',
+  `end_user_id` BIGINT NOT NULL COMMENT '用户ID范围终点（不包含）',
+  `checkpoint_user_id` BIGINT NOT NULL COMMENT '已处理完的最后一个用户ID，续跑时从其后继续',
+  `status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '状态：pending-待处理，running-处理中，done-已完成',
+  `owner` VARCHAR(100) DEFAULT NULL COMMENT '持有租约的节点标识',
+  `lease_until` DATETIME DEFAULT NULL COMMENT '租约到期时间，过期后其他节点可接管',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_run_slot_shard` (`run_date`, `slot`, `shard_no`),
+  KEY `idx_run_status` (`run_date`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日报分片租约表';
+
 -- =====================================================
 -- 初始化推荐活动数据
 -- =====================================================
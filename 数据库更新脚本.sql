@@ -18,4 +18,71 @@ SET `status` = 'pending'
 WHERE `status` IS NULL OR `status` = '';
 
 -- 4. 验证表结构
-DESC `fixed_task`;
\ No newline at end of file
+DESC `fixed_task`;
+
+-- 5. 固定任务按时间范围查询的索引优化
+-- 时间范围查询统一为 user_id = ? AND deleted = 0 AND start_time < ? AND end_time > ?，
+-- 新的复合索引可以直接按 (user_id, deleted) 定位后对 start_time 做范围扫描，end_time 在索引内过滤
+ALTER TABLE `fixed_task`
+ADD KEY `idx_user_deleted_time` (`user_id`, `deleted`, `start_time`, `end_time`);
+
+-- idx_user_time 的所有查询都已被新索引覆盖，删除以减少写入开销（user_id外键仍由idx_user_id支撑）
+ALTER TABLE `fixed_task`
+DROP KEY `idx_user_time`;
+
+-- 6. 今日目标游标分页索引
+-- 分页条件为 user_id = ? AND (create_time, id) < (?, ?) ORDER BY create_time DESC, id DESC
+ALTER TABLE `today_goal`
+ADD KEY `idx_user_create_time` (`user_id`, `create_time`);
+
+-- 7. 邮件发件箱
+-- 日报生成时只写入 pending 状态的 email_log，由发送线程池按 next_retry_time 认领发送；
+-- sending 状态表示已被某个发送线程认领，next_retry_time 同时作为认领租约的到期时间；
+-- 同一报告的同类邮件只允许一封，分片接管或重跑时重复写入会被忽略（report_id 为 NULL 的邮件不受限制）
+ALTER TABLE `email_log`
+ADD COLUMN `report_id` BIGINT DEFAULT NULL COMMENT '关联的报告ID，报告推送邮件发送成功后回写report.email_sent' AFTER `user_id`,
+ADD COLUMN `next_retry_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次可发送时间，sending状态下为认领租约到期时间' AFTER `retry_count`,
+MODIFY COLUMN `send_status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '发送状态：pending-待发送，sending-发送中，success-成功，failed-失败',
+ADD KEY `idx_status_next_retry` (`send_status`, `next_retry_time`),
+ADD UNIQUE KEY `uk_report_email_type` (`report_id`, `email_type`);
+
+-- 8. 日报分片租约表
+-- 每天的日报按用户ID范围切分成分片，各节点通过租约认领分片并记录检查点，节点宕机后其他节点从检查点接管
+CREATE TABLE `report_shard` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '分片ID，主键',
+  `run_date` DATE NOT NULL COMMENT '日报日期（用户本地日期）',
+  `slot` VARCHAR(80) NOT NULL DEFAULT '' COMMENT '投递时段：时区@投递小时，如 Asia/Shanghai@20',
+  `shard_no` INT NOT NULL COMMENT '分片序号',
+  `start_user_id` BIGINT NOT NULL COMMENT '用户ID范围起点（包含）',
+  `end_user_id` BIGINT NOT NULL COMMENT '用户ID范围终点（不包含）',
+  `checkpoint_user_id` BIGINT NOT NULL COMMENT '已处理完的最后一个用户ID，续跑时从其后继续',
+  `status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '状态：pending-待处理，running-处理中，done-已完成',
+  `owner` VARCHAR(100) DEFAULT NULL COMMENT '持有租约的节点标识',
+  `lease_until` DATETIME DEFAULT NULL COMMENT '租约到期时间，过期后其他节点可接管',
+  `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_run_slot_shard` (`run_date`, `slot`, `shard_no`),
+  KEY `idx_run_status` (`run_date`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日报分片租约表';
+
+-- 9. 按用户时区投递日报
+-- 用户按 (时区, 投递小时) 划分投递时段，调度器每分钟只处理本地时间刚好到达投递小时的时段，
+-- 每个时段再按用户ID范围切分成分片（report_shard.slot，见第8步）
+ALTER TABLE `user`
+ADD COLUMN `timezone` VARCHAR(64) NOT NULL DEFAULT 'Asia/Shanghai' COMMENT '用户时区（IANA时区ID）' AFTER `email_subscribe`,
+ADD COLUMN `delivery_hour` TINYINT NOT NULL DEFAULT 20 COMMENT '日报投递时间（用户本地小时，0-23）' AFTER `timezone`,
+ADD KEY `idx_subscribe_delivery` (`email_subscribe`, `timezone`, `delivery_hour`, `id`);
+
+-- 10. 固定任务版本号
+-- 各节点缓存用户的固定任务区间索引用于时间冲突校验，任何节点修改有效任务时在同一事务中递增版本号，
+-- 其他节点校验时发现版本号变化即重新加载索引
+ALTER TABLE `user`
+ADD COLUMN `schedule_version` BIGINT NOT NULL DEFAULT 0 COMMENT '固定任务版本号，有效任务变化时递增，用于判断时间冲突索引是否过期' AFTER `delivery_hour`;
+
+-- 11. 验证索引
+SHOW INDEX FROM `fixed_task`;
+SHOW INDEX FROM `today_goal`;
+SHOW INDEX FROM `email_log`;
+SHOW INDEX FROM `report_shard`;
+SHOW INDEX FROM `user`;